@@ -0,0 +1,98 @@
+package com.si.admin_management.config;
+
+import org.keycloak.representations.idm.authorization.DecisionStrategy;
+import org.keycloak.representations.idm.authorization.Logic;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Immutable copy of the Keycloak authorization model of the client (scope/resource permissions
+ * and the role policies attached to them). Evaluates which "resource:scope" permissions a set of
+ * realm roles is granted, the way Keycloak does when it issues an RPT.
+ */
+public final class AuthorizationSnapshot {
+    public static final AuthorizationSnapshot EMPTY = new AuthorizationSnapshot(DecisionStrategy.UNANIMOUS, List.of());
+
+    private final DecisionStrategy decisionStrategy;
+    private final Map<String, List<PermissionRule>> permissionsByAuthority = new HashMap<>();
+    private final Map<Set<String>, Set<String>> decisions = new ConcurrentHashMap<>();
+
+    public AuthorizationSnapshot(DecisionStrategy decisionStrategy, List<PermissionRule> permissions) {
+        this.decisionStrategy = decisionStrategy == null ? DecisionStrategy.UNANIMOUS : decisionStrategy;
+        permissions.forEach(permission -> permission.authorities().forEach(authority ->
+                permissionsByAuthority.computeIfAbsent(authority, key -> new ArrayList<>()).add(permission)));
+        permissionsByAuthority.replaceAll((authority, rules) -> List.copyOf(rules));
+    }
+
+    /**
+     * @param realmRoles realm roles of the user, as found in realm_access.roles
+     * @return granted permissions, formatted as "resource:scope"
+     */
+    public Set<String> grantedPermissions(Collection<String> realmRoles) {
+        return decisions.computeIfAbsent(Set.copyOf(realmRoles), this::evaluate);
+    }
+
+    public int size() {
+        return permissionsByAuthority.size();
+    }
+
+    private Set<String> evaluate(Set<String> realmRoles) {
+        Set<String> granted = new LinkedHashSet<>();
+        permissionsByAuthority.forEach((authority, rules) -> {
+            if (decide(decisionStrategy, rules.stream().map(rule -> rule.grants(realmRoles)))) {
+                granted.add(authority);
+            }
+        });
+        return Set.copyOf(granted);
+    }
+
+    static boolean decide(DecisionStrategy strategy, Stream<Boolean> votes) {
+        List<Boolean> results = votes.toList();
+        if (results.isEmpty()) {
+            return false;
+        }
+        long grants = results.stream().filter(Boolean::booleanValue).count();
+        return switch (strategy) {
+            case AFFIRMATIVE -> grants > 0;
+            case CONSENSUS -> grants > results.size() - grants;
+            default -> grants == results.size();
+        };
+    }
+
+    /**
+     * A scope or resource permission: the "resource:scope" pairs it protects and its policies.
+     */
+    public record PermissionRule(String name, DecisionStrategy decisionStrategy, Set<String> authorities,
+                                 List<RolePolicyRule> policies) {
+        boolean grants(Set<String> realmRoles) {
+            DecisionStrategy strategy = decisionStrategy == null ? DecisionStrategy.UNANIMOUS : decisionStrategy;
+            return decide(strategy, policies.stream().map(policy -> policy.grants(realmRoles)));
+        }
+    }
+
+    /**
+     * A role policy. Policies of other types cannot be evaluated locally and never grant access.
+     */
+    public record RolePolicyRule(String name, Logic logic, Set<String> requiredRoles, Set<String> roles,
+                                 boolean evaluable) {
+        public static RolePolicyRule notEvaluable(String name) {
+            return new RolePolicyRule(name, Logic.POSITIVE, Set.of(), Set.of(), false);
+        }
+
+        boolean grants(Set<String> realmRoles) {
+            if (!evaluable) {
+                return false;
+            }
+            boolean granted = realmRoles.containsAll(requiredRoles) && roles.stream().anyMatch(realmRoles::contains);
+            return logic == Logic.NEGATIVE ? !granted : granted;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.si.admin_management.config;
+
+import com.si.admin_management.utils.ExpiringCache;
+import com.si.admin_management.utils.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.Nullable;
+
+/**
+ * Expose les caches en mémoire sous les noms de métriques standards de Micrometer
+ * (cache.size, cache.gets, cache.evictions), avec un tag "cache".
+ */
+@Configuration
+public class CacheMetricsConfig {
+
+    @Bean
+    public MeterBinder cacheMetrics(@Nullable RptTokenProvider rptTokenProvider, @Nullable CachingJwtDecoder jwtDecoder) {
+        return registry -> {
+            if (rptTokenProvider != null) {
+                bind(registry, "rpt", rptTokenProvider.getCache());
+                FunctionCounter.builder("keycloak.rpt.exchanges", rptTokenProvider.getExchanges(), SingleFlight::getExecutions)
+                        .description("RPT exchanges sent to Keycloak")
+                        .register(registry);
+                FunctionCounter.builder("keycloak.rpt.refreshes", rptTokenProvider, RptTokenProvider::getRefreshes)
+                        .description("RPTs refreshed in the background")
+                        .register(registry);
+            }
+            if (jwtDecoder != null) {
+                bind(registry, "jwt", jwtDecoder.getCache());
+            }
+        };
+    }
+
+    static void bind(MeterRegistry registry, String name, ExpiringCache<?, ?> cache) {
+        Gauge.builder("cache.size", cache, ExpiringCache::size)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.max.size", cache, ExpiringCache::getMaxSize)
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("cache.gets", cache, ExpiringCache::getHits)
+                .tag("cache", name)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", cache, ExpiringCache::getMisses)
+                .tag("cache", name)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", cache, ExpiringCache::getEvictions)
+                .tag("cache", name)
+                .register(registry);
+    }
+}
@@ -0,0 +1,51 @@
+package com.si.admin_management.config;
+
+import com.si.admin_management.utils.ExpiringCache;
+import com.si.admin_management.utils.TokenUtils;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keeps the authorities computed for a token until the token expires, keyed by its jti
+ * (or a hash of the token when it has none), so that a token reused across requests is
+ * converted only once.
+ */
+public class CachingJwtAuthoritiesConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
+    private final Converter<Jwt, Collection<GrantedAuthority>> delegate;
+    private final ExpiringCache<String, Collection<GrantedAuthority>> cache;
+
+    public CachingJwtAuthoritiesConverter(Converter<Jwt, Collection<GrantedAuthority>> delegate,
+                                          ExpiringCache<String, Collection<GrantedAuthority>> cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Collection<GrantedAuthority> convert(Jwt jwt) {
+        if (jwt.getExpiresAt() == null) {
+            return delegate.convert(jwt);
+        }
+        String key = key(jwt);
+        Collection<GrantedAuthority> cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        Collection<GrantedAuthority> authorities = List.copyOf(delegate.convert(jwt));
+        cache.put(key, authorities, jwt.getExpiresAt());
+        return authorities;
+    }
+
+    public ExpiringCache<String, Collection<GrantedAuthority>> getCache() {
+        return cache;
+    }
+
+    private static String key(Jwt jwt) {
+        // Le jti est propre au token ; le hash couvre les tokens qui n'en ont pas
+        String jti = jwt.getId();
+        return jti != null ? jti : TokenUtils.hash(jwt.getTokenValue());
+    }
+}
@@ -0,0 +1,38 @@
+package com.si.admin_management.config;
+
+import com.si.admin_management.utils.ExpiringCache;
+import com.si.admin_management.utils.TokenUtils;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * Keeps the tokens validated by the delegate decoder until they expire, keyed by a hash of
+ * the token, so that a token presented again is not re-parsed nor re-verified.
+ * Tokens rejected by the delegate are never cached.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+    private final JwtDecoder delegate;
+    private final ExpiringCache<String, Jwt> cache;
+
+    public CachingJwtDecoder(JwtDecoder delegate, ExpiringCache<String, Jwt> cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = TokenUtils.hash(token);
+        Jwt cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        Jwt jwt = delegate.decode(token);
+        cache.put(key, jwt, jwt.getExpiresAt());
+        return jwt;
+    }
+
+    public ExpiringCache<String, Jwt> getCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,50 @@
+package com.si.admin_management.config;
+
+import com.si.admin_management.utils.ExpiringCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.OAuth2ResourceServerProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtClaimValidator;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opt-in (security.jwt-cache.enabled=true) : remplace le décodeur auto-configuré par Spring Boot
+ * par le même décodeur Nimbus, enveloppé dans un cache des tokens déjà validés.
+ */
+@Configuration
+@ConditionalOnProperty(name = "security.jwt-cache.enabled", havingValue = "true")
+public class JwtDecoderConfig {
+    @Value("${security.jwt-cache.max-size:10000}")
+    private int maxSize;
+
+    @Bean
+    public CachingJwtDecoder jwtDecoder(OAuth2ResourceServerProperties properties) {
+        OAuth2ResourceServerProperties.Jwt jwtProperties = properties.getJwt();
+        NimbusJwtDecoder nimbusJwtDecoder = NimbusJwtDecoder.withJwkSetUri(jwtProperties.getJwkSetUri()).build();
+        nimbusJwtDecoder.setJwtValidator(validator(jwtProperties));
+        return new CachingJwtDecoder(nimbusJwtDecoder, new ExpiringCache<>(maxSize));
+    }
+
+    static OAuth2TokenValidator<Jwt> validator(OAuth2ResourceServerProperties.Jwt jwtProperties) {
+        List<OAuth2TokenValidator<Jwt>> validators = new ArrayList<>();
+        validators.add(jwtProperties.getIssuerUri() != null
+                ? JwtValidators.createDefaultWithIssuer(jwtProperties.getIssuerUri())
+                : JwtValidators.createDefault());
+        List<String> audiences = jwtProperties.getAudiences();
+        if (!audiences.isEmpty()) {
+            validators.add(new JwtClaimValidator<List<String>>(JwtClaimNames.AUD,
+                    aud -> aud != null && aud.stream().anyMatch(audiences::contains)));
+        }
+        return new DelegatingOAuth2TokenValidator<>(validators);
+    }
+}
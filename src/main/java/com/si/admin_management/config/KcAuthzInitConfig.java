@@ -1,7 +1,9 @@
 package com.si.admin_management.config;
 
+import org.apache.http.client.HttpClient;
 import org.keycloak.authorization.client.AuthzClient;
 import org.keycloak.authorization.client.Configuration;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 
@@ -17,6 +19,9 @@ public class KcAuthzInitConfig {
     private String clientId;
     @Value("${keycloak.client-secret}")
     private String clientSecret;
+    // Pool partagé défini dans KeycloakHttpClientConfig
+    @Autowired(required = false)
+    private HttpClient keycloakHttpClient;
 
     @Bean
     public AuthzClient authzClient() {
@@ -25,7 +30,7 @@ public class KcAuthzInitConfig {
                 realm,
                 clientId,
                 Collections.singletonMap("secret", clientSecret),
-                null
+                keycloakHttpClient
         );
         return AuthzClient.create(config);
     }
@@ -1,8 +1,15 @@
 package com.si.admin_management.config;
 
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.client.jaxrs.engines.ApacheHttpClient43Engine;
 import org.keycloak.OAuth2Constants;
+import org.keycloak.admin.client.JacksonProvider;
 import org.keycloak.admin.client.Keycloak;
 import org.keycloak.admin.client.KeycloakBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -17,15 +24,29 @@ public class KeycloakAdminConfig {
     private String clientId;
     @Value("${keycloak.client-secret}")
     private String clientSecret;
+    // Pool partagé défini dans KeycloakHttpClientConfig
+    @Autowired(required = false)
+    private CloseableHttpClient keycloakHttpClient;
 
     @Bean
     public Keycloak keycloakAdmin () {
-        return KeycloakBuilder.builder()
+        KeycloakBuilder builder = KeycloakBuilder.builder()
                 .serverUrl(serverUrl)
                 .realm(realm)
                 .clientId(clientId)
                 .clientSecret(clientSecret)
-                .grantType(OAuth2Constants.CLIENT_CREDENTIALS)
+                .grantType(OAuth2Constants.CLIENT_CREDENTIALS);
+        if (keycloakHttpClient != null) {
+            builder.resteasyClient(resteasyClient(keycloakHttpClient));
+        }
+        return builder.build();
+    }
+
+    static Client resteasyClient(CloseableHttpClient httpClient) {
+        return ((ResteasyClientBuilder) ClientBuilder.newBuilder())
+                // false : fermer le client d'administration ne doit pas fermer le pool partagé avec le client authz
+                .httpEngine(new ApacheHttpClient43Engine(httpClient, false))
+                .register(JacksonProvider.class, 100)
                 .build();
     }
 }
@@ -0,0 +1,25 @@
+package com.si.admin_management.config;
+
+import com.si.admin_management.utils.BoundedFanOut;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Appels parallèles vers l'API d'administration Keycloak. Le parallélisme borne le nombre d'appels
+ * simultanés pour toute l'application ; il doit rester inférieur à keycloak.http.max-connections-per-route.
+ */
+@Configuration
+public class KeycloakFanOutConfig {
+    @Value("${keycloak.fan-out.parallelism:8}")
+    private int parallelism;
+    @Value("${keycloak.fan-out.timeout:10s}")
+    private Duration timeout;
+
+    @Bean(destroyMethod = "shutdown")
+    public BoundedFanOut keycloakFanOut() {
+        return new BoundedFanOut("keycloak-fan-out", parallelism, timeout);
+    }
+}
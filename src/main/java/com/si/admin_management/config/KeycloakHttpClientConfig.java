@@ -0,0 +1,67 @@
+package com.si.admin_management.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool de connexions keep-alive partagé par le client d'administration Keycloak et l'AuthzClient,
+ * qui appellent tous deux le même serveur.
+ */
+@Configuration
+public class KeycloakHttpClientConfig {
+    @Value("${keycloak.http.max-connections:50}")
+    private int maxConnections;
+    @Value("${keycloak.http.max-connections-per-route:20}")
+    private int maxConnectionsPerRoute;
+    @Value("${keycloak.http.idle-eviction:30s}")
+    private Duration idleEviction;
+    @Value("${keycloak.http.connection-ttl:5m}")
+    private Duration connectionTtl;
+    @Value("${keycloak.http.connect-timeout:5s}")
+    private Duration connectTimeout;
+    @Value("${keycloak.http.read-timeout:10s}")
+    private Duration readTimeout;
+    @Value("${keycloak.http.pool-timeout:5s}")
+    private Duration poolTimeout;
+
+    @Bean
+    public PoolingHttpClientConnectionManager keycloakConnectionManager() {
+        PoolingHttpClientConnectionManager connectionManager =
+                new PoolingHttpClientConnectionManager(connectionTtl.toMillis(), TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        // Revalider une connexion restée inactive avant de la réutiliser
+        connectionManager.setValidateAfterInactivity(2000);
+        return connectionManager;
+    }
+
+    @Bean
+    public CloseableHttpClient keycloakHttpClient(PoolingHttpClientConnectionManager keycloakConnectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) connectTimeout.toMillis())
+                .setSocketTimeout((int) readTimeout.toMillis())
+                .setConnectionRequestTimeout((int) poolTimeout.toMillis())
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(keycloakConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(idleEviction.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Bean
+    public MeterBinder keycloakConnectionPoolMetrics(PoolingHttpClientConnectionManager keycloakConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(keycloakConnectionManager, "keycloak");
+    }
+}
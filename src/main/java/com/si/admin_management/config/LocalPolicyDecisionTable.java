@@ -0,0 +1,189 @@
+package com.si.admin_management.config;
+
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.AuthorizationResource;
+import org.keycloak.admin.client.resource.PolicyResource;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.authorization.PolicyRepresentation;
+import org.keycloak.representations.idm.authorization.ResourceRepresentation;
+import org.keycloak.representations.idm.authorization.RolePolicyRepresentation;
+import org.keycloak.representations.idm.authorization.ScopeRepresentation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Local policy evaluation mode (keycloak.authorization.mode=local): periodically snapshots the
+ * authorization model of the client and computes the PERMISSION_* authorities from the realm roles
+ * of the access token, instead of exchanging every token for an RPT.
+ */
+@Component
+@ConditionalOnProperty(name = "keycloak.authorization.mode", havingValue = "local")
+public class LocalPolicyDecisionTable {
+    private static final int PAGE_SIZE = 100;
+    private final Logger logger = LoggerFactory.getLogger(LocalPolicyDecisionTable.class);
+    private final Keycloak keycloakAdmin;
+    private volatile AuthorizationSnapshot snapshot = AuthorizationSnapshot.EMPTY;
+
+    @Value("${keycloak.realm}")
+    private String realm;
+    @Value("${keycloak.client-id}")
+    private String clientId;
+
+    public LocalPolicyDecisionTable(Keycloak keycloakAdmin) {
+        this.keycloakAdmin = keycloakAdmin;
+    }
+
+    /**
+     * @return granted permissions, formatted as "resource:scope"
+     */
+    public Set<String> grantedPermissions(Collection<String> realmRoles) {
+        return snapshot.grantedPermissions(realmRoles);
+    }
+
+    public AuthorizationSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    void setSnapshot(AuthorizationSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${keycloak.authorization.local.refresh-interval-ms:300000}")
+    public void refresh() {
+        try {
+            snapshot = load();
+            logger.info("Authorization snapshot loaded : {} permissions", snapshot.size());
+        } catch (RuntimeException e) {
+            // On garde le snapshot précédent tant que Keycloak ne répond pas
+            logger.warn("Unable to refresh authorization snapshot : {}", e.getMessage());
+        }
+    }
+
+    AuthorizationSnapshot load() {
+        RealmResource realmResource = keycloakAdmin.realm(realm);
+        List<ClientRepresentation> clients = realmResource.clients().findByClientId(clientId);
+        if (clients.isEmpty()) {
+            throw new IllegalStateException("Client not found : " + clientId);
+        }
+        AuthorizationResource authorization = realmResource.clients().get(clients.get(0).getId()).authorization();
+
+        Map<String, String> roleNames = realmResource.roles().list().stream()
+                .collect(Collectors.toMap(RoleRepresentation::getId, RoleRepresentation::getName, (first, second) -> first));
+
+        // La liste des ressources contient déjà leurs scopes et leur type : pas d'appel par ressource
+        Map<String, Set<String>> scopesByResource = new HashMap<>();
+        Map<String, String> typeByResource = new HashMap<>();
+        for (ResourceRepresentation resource : authorization.resources().resources()) {
+            scopesByResource.put(resource.getName(), resource.getScopes() == null ? Set.of() : resource.getScopes().stream()
+                    .map(ScopeRepresentation::getName)
+                    .collect(Collectors.toSet()));
+            if (resource.getType() != null) {
+                typeByResource.put(resource.getName(), resource.getType());
+            }
+        }
+
+        Map<String, AuthorizationSnapshot.RolePolicyRule> policies = new HashMap<>();
+        List<AuthorizationSnapshot.PermissionRule> permissions = new ArrayList<>();
+        for (PolicyRepresentation permission : listPermissions(authorization)) {
+            PolicyResource permissionResource = authorization.policies().policy(permission.getId());
+            Set<String> resources = permissionResource.resources().stream()
+                    .map(ResourceRepresentation::getName)
+                    .collect(Collectors.toSet());
+            Set<String> scopes = permissionResource.scopes().stream()
+                    .map(ScopeRepresentation::getName)
+                    .collect(Collectors.toSet());
+            List<AuthorizationSnapshot.RolePolicyRule> rules = permissionResource.associatedPolicies().stream()
+                    .map(policy -> policies.computeIfAbsent(policy.getId(), id -> toRule(authorization, policy, roleNames)))
+                    .toList();
+            permissions.add(new AuthorizationSnapshot.PermissionRule(
+                    permission.getName(),
+                    permission.getDecisionStrategy(),
+                    authorities(permission.getType(), resources, resourceType(permission), scopes, scopesByResource, typeByResource),
+                    rules
+            ));
+        }
+        return new AuthorizationSnapshot(authorization.getSettings().getDecisionStrategy(), permissions);
+    }
+
+    private List<PolicyRepresentation> listPermissions(AuthorizationResource authorization) {
+        List<PolicyRepresentation> permissions = new ArrayList<>();
+        int first = 0;
+        List<PolicyRepresentation> page;
+        do {
+            page = authorization.policies().policies(null, null, null, null, null, true, null, null, first, PAGE_SIZE);
+            permissions.addAll(page);
+            first += PAGE_SIZE;
+        } while (page.size() == PAGE_SIZE);
+        return permissions;
+    }
+
+    private AuthorizationSnapshot.RolePolicyRule toRule(AuthorizationResource authorization, PolicyRepresentation policy,
+                                                        Map<String, String> roleNames) {
+        if (!"role".equals(policy.getType())) {
+            logger.warn("Policy {} of type {} cannot be evaluated locally", policy.getName(), policy.getType());
+            return AuthorizationSnapshot.RolePolicyRule.notEvaluable(policy.getName());
+        }
+        RolePolicyRepresentation rolePolicy = authorization.policies().role().findById(policy.getId()).toRepresentation();
+        Set<String> required = new HashSet<>();
+        Set<String> roles = new HashSet<>();
+        if (rolePolicy.getRoles() != null) {
+            rolePolicy.getRoles().forEach(role -> {
+                // Les rôles clients n'apparaissent pas dans realm_access : on garde l'id, qui ne matchera jamais
+                String name = roleNames.getOrDefault(role.getId(), role.getId());
+                roles.add(name);
+                if (role.isRequired()) {
+                    required.add(name);
+                }
+            });
+        }
+        return new AuthorizationSnapshot.RolePolicyRule(policy.getName(), policy.getLogic(), Set.copyOf(required), Set.copyOf(roles), true);
+    }
+
+    private static String resourceType(PolicyRepresentation permission) {
+        return permission.getConfig() == null ? null : permission.getConfig().get("defaultResourceType");
+    }
+
+    static Set<String> authorities(String type, Set<String> resources, String resourceType, Set<String> scopes,
+                                   Map<String, Set<String>> scopesByResource, Map<String, String> typeByResource) {
+        Set<String> authorities = new HashSet<>();
+        Collection<String> targets;
+        if (!resources.isEmpty()) {
+            targets = resources;
+        } else if ("resource".equals(type)) {
+            // Permission par type de ressource : seules les ressources de ce type sont concernées, aucune sans type
+            targets = resourceType == null || resourceType.isBlank() ? Set.of() : typeByResource.entrySet().stream()
+                    .filter(entry -> resourceType.equals(entry.getValue()))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toSet());
+        } else {
+            targets = scopesByResource.keySet();
+        }
+        for (String resource : targets) {
+            Set<String> resourceScopes = scopesByResource.getOrDefault(resource, Set.of());
+            if ("resource".equals(type)) {
+                resourceScopes.forEach(scope -> authorities.add(resource + ":" + scope));
+            } else {
+                boolean unknownResource = !scopesByResource.containsKey(resource);
+                scopes.stream()
+                        .filter(scope -> unknownResource || resourceScopes.contains(scope))
+                        .forEach(scope -> authorities.add(resource + ":" + scope));
+            }
+        }
+        return Set.copyOf(authorities);
+    }
+}
@@ -5,9 +5,9 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletRequestWrapper;
 import jakarta.servlet.http.HttpServletResponse;
-import org.keycloak.representations.idm.authorization.AuthorizationResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -15,13 +15,14 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 
 @Component
+@ConditionalOnProperty(name = "keycloak.authorization.mode", havingValue = "rpt", matchIfMissing = true)
 public class RptTokenExchangeFilter extends OncePerRequestFilter {
     private final Logger logger = LoggerFactory.getLogger(RptTokenExchangeFilter.class);
-    private final KcAuthzInitConfig authzConfig;
+    private final RptTokenProvider rptTokenProvider;
 
 
-    RptTokenExchangeFilter(KcAuthzInitConfig authzConfig) {
-        this.authzConfig = authzConfig;
+    RptTokenExchangeFilter(RptTokenProvider rptTokenProvider) {
+        this.rptTokenProvider = rptTokenProvider;
     }
 
     @Override
@@ -49,6 +50,7 @@ public class RptTokenExchangeFilter extends OncePerRequestFilter {
                 filterChain.doFilter(wrappedRequest, response);
                 return;
             } catch (Exception e) {
+                logger.warn("Unable to get RPT : {}", e.getMessage());
                 response.setStatus(HttpStatus.FORBIDDEN.value());
                 response.getWriter().write("Unable to get RPT: " + e.getMessage());
                 return;
@@ -59,10 +61,6 @@ public class RptTokenExchangeFilter extends OncePerRequestFilter {
     }
 
     private String getRptToken(String accessToken) {
-        AuthorizationResponse response = authzConfig.authzClient().authorization(accessToken).authorize();
-        logger.info(response.getError());
-        logger.info(response.getErrorDescription());
-        logger.info("rpt work");
-        return response.getToken();
+        return rptTokenProvider.getRptToken(accessToken);
     }
 }
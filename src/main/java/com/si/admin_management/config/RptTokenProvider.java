@@ -0,0 +1,162 @@
+package com.si.admin_management.config;
+
+import com.si.admin_management.utils.ExpiringCache;
+import com.si.admin_management.utils.SingleFlight;
+import com.si.admin_management.utils.TokenUtils;
+import jakarta.annotation.PreDestroy;
+import org.keycloak.representations.idm.authorization.AuthorizationResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exchanges access tokens for RPTs and keeps the result in memory until the RPT expires,
+ * keyed by a hash of the access token. Concurrent requests carrying the same access token
+ * share a single exchange. When a refresh-ahead window is configured, an RPT close to its
+ * expiry is still served and a new one is fetched in the background.
+ */
+@Component
+@ConditionalOnProperty(name = "keycloak.authorization.mode", havingValue = "rpt", matchIfMissing = true)
+public class RptTokenProvider {
+    private final Logger logger = LoggerFactory.getLogger(RptTokenProvider.class);
+    private final KcAuthzInitConfig authzConfig;
+    private final ExpiringCache<String, String> cache;
+    private final SingleFlight<String, String> exchanges = new SingleFlight<>();
+    private final Duration refreshAheadWindow;
+    private final Executor refreshExecutor;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder rejectedRefreshes = new LongAdder();
+
+    @Autowired
+    RptTokenProvider(KcAuthzInitConfig authzConfig,
+                     @Value("${keycloak.rpt-cache.max-size:10000}") int maxSize,
+                     @Value("${keycloak.rpt-cache.refresh-ahead-window:0s}") Duration refreshAheadWindow,
+                     @Value("${keycloak.rpt-cache.refresh-threads:2}") int refreshThreads,
+                     @Value("${keycloak.rpt-cache.refresh-queue-size:100}") int refreshQueueSize) {
+        this(authzConfig, new ExpiringCache<>(maxSize), refreshAheadWindow,
+                refreshExecutor(refreshThreads, refreshQueueSize));
+    }
+
+    RptTokenProvider(KcAuthzInitConfig authzConfig, ExpiringCache<String, String> cache) {
+        this(authzConfig, cache, Duration.ZERO, Runnable::run);
+    }
+
+    RptTokenProvider(KcAuthzInitConfig authzConfig, ExpiringCache<String, String> cache,
+                     Duration refreshAheadWindow, Executor refreshExecutor) {
+        this.authzConfig = authzConfig;
+        this.cache = cache;
+        this.refreshAheadWindow = refreshAheadWindow;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    public String getRptToken(String accessToken) {
+        String key = TokenUtils.hash(accessToken);
+        ExpiringCache.Entry<String> cached = cache.getEntry(key);
+        if (cached != null) {
+            if (isRefreshDue(cached)) {
+                refreshAsync(key, accessToken);
+            }
+            return cached.value();
+        }
+        return exchangeAndCache(key, accessToken);
+    }
+
+    public ExpiringCache<String, String> getCache() {
+        return cache;
+    }
+
+    public SingleFlight<String, String> getExchanges() {
+        return exchanges;
+    }
+
+    public long getRefreshes() {
+        return refreshes.sum();
+    }
+
+    public long getRejectedRefreshes() {
+        return rejectedRefreshes.sum();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (refreshExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private boolean isRefreshDue(ExpiringCache.Entry<String> cached) {
+        if (refreshAheadWindow.isZero() || refreshAheadWindow.isNegative()) {
+            return false;
+        }
+        return !cached.expiresAt().minus(refreshAheadWindow).isAfter(cache.now());
+    }
+
+    private void refreshAsync(String key, String accessToken) {
+        // Keycloak refuserait l'échange avec un access token déjà expiré
+        Optional<Instant> accessTokenExpiry = TokenUtils.expiresAt(accessToken);
+        if (accessTokenExpiry.isPresent() && !accessTokenExpiry.get().isAfter(cache.now())) {
+            return;
+        }
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    exchangeAndCache(key, accessToken);
+                    refreshes.increment();
+                } catch (RuntimeException e) {
+                    logger.warn("RPT background refresh failed : {}", e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+            rejectedRefreshes.increment();
+        }
+    }
+
+    private String exchangeAndCache(String key, String accessToken) {
+        return exchanges.execute(key, () -> {
+            String rpt = exchange(accessToken);
+            Optional<Instant> expiresAt = TokenUtils.expiresAt(rpt);
+            expiresAt.ifPresent(exp -> cache.put(key, rpt, exp));
+            return rpt;
+        });
+    }
+
+    private String exchange(String accessToken) {
+        AuthorizationResponse response = authzConfig.authzClient().authorization(accessToken).authorize();
+        if (response.getError() != null) {
+            logger.warn("RPT exchange error : {} - {}", response.getError(), response.getErrorDescription());
+        }
+        logger.debug("RPT obtained from Keycloak");
+        return response.getToken();
+    }
+
+    private static ExecutorService refreshExecutor(int threads, int queueSize) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("rpt-refresh-");
+        threadFactory.setDaemon(true);
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -1,7 +1,12 @@
 package com.si.admin_management.config;
 
+import com.si.admin_management.utils.ExpiringCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.lang.Nullable;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -19,6 +24,7 @@ import org.springframework.security.web.SecurityFilterChain;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -26,14 +32,27 @@ import java.util.stream.Stream;
 @EnableWebSecurity
 @EnableMethodSecurity
 public class SecurityConfig {
+    // Présent uniquement en mode keycloak.authorization.mode=local
+    @Autowired(required = false)
+    private LocalPolicyDecisionTable localPolicyDecisionTable;
+
+    // 0 = pas de cache, les autorités sont recalculées à chaque requête
+    @Value("${security.authorities-cache.max-size:10000}")
+    private int authoritiesCacheMaxSize = 10000;
+
+    private final JwtGrantedAuthoritiesConverter scopesConverter = new JwtGrantedAuthoritiesConverter();
+    private final Map<String, GrantedAuthority> authorities = new ConcurrentHashMap<>();
+
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http , RptTokenExchangeFilter rptTokenExchangeFilter) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http , @Nullable RptTokenExchangeFilter rptTokenExchangeFilter) throws Exception {
+        if (rptTokenExchangeFilter != null) {
+            http.addFilterBefore(rptTokenExchangeFilter, BearerTokenAuthenticationFilter.class);
+        }
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(Customizer.withDefaults())
-                .addFilterBefore(rptTokenExchangeFilter, BearerTokenAuthenticationFilter.class)
                 .authorizeHttpRequests(authz -> authz
-                        .requestMatchers("/swagger/**", "/v3/api-docs/**", "/swagger-ui/**","/h2-console/**").permitAll()
+                        .requestMatchers("/swagger/**", "/v3/api-docs/**", "/swagger-ui/**","/h2-console/**", "/actuator/health/**").permitAll()
                         .anyRequest()
                         .authenticated()
                 )
@@ -49,39 +68,60 @@ public class SecurityConfig {
     @Bean
     public JwtAuthenticationConverter jwtAuthenticationConverter() {
         JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
-        converter.setJwtGrantedAuthoritiesConverter(jwt -> {
-            JwtGrantedAuthoritiesConverter defaultConverter = new JwtGrantedAuthoritiesConverter();
-            Collection<GrantedAuthority> authorities = defaultConverter.convert(jwt);
-
-            List<GrantedAuthority> roles = extractRoles(jwt);
-            List<GrantedAuthority> permissions = extractPermissions(jwt);
-
-            return Stream.concat(
-                    Stream.concat(
-                            authorities.stream(),
-                            roles.stream()
-                    ),
-                    permissions.stream()
-            ).collect(Collectors.toList());
-        });
+        Converter<Jwt, Collection<GrantedAuthority>> authoritiesConverter = this::convertAuthorities;
+        if (authoritiesCacheMaxSize > 0) {
+            authoritiesConverter = new CachingJwtAuthoritiesConverter(authoritiesConverter, new ExpiringCache<>(authoritiesCacheMaxSize));
+        }
+        converter.setJwtGrantedAuthoritiesConverter(authoritiesConverter);
 
         return converter;
     }
 
+    private Collection<GrantedAuthority> convertAuthorities(Jwt jwt) {
+        List<GrantedAuthority> scopes = scopesConverter.convert(jwt).stream()
+                .map(scope -> authority(scope.getAuthority()))
+                .toList();
+        List<GrantedAuthority> roles = extractRoles(jwt);
+        List<GrantedAuthority> permissions = localPolicyDecisionTable != null
+                ? evaluatePermissions(jwt)
+                : extractPermissions(jwt);
+
+        return Stream.concat(
+                Stream.concat(
+                        scopes.stream(),
+                        roles.stream()
+                ),
+                permissions.stream()
+        ).collect(Collectors.toList());
+    }
+
+    /**
+     * Les autorités possibles sont en nombre fini (scopes, rôles, permissions du realm) : une seule instance par nom.
+     */
+    private GrantedAuthority authority(String name) {
+        return authorities.computeIfAbsent(name, SimpleGrantedAuthority::new);
+    }
+
     private List<GrantedAuthority> extractRoles(Jwt jwt) {
-        List<GrantedAuthority> rolesAuthorities = List.of();
+        return realmRoles(jwt).stream()
+                .map(role -> authority("ROLE_" + role))
+                .collect(Collectors.toList());
+    }
 
+    private List<String> realmRoles(Jwt jwt) {
         if (jwt.getClaim("realm_access") != null) {
             Map<String, Object> realmAccess = jwt.getClaim("realm_access");
             if (realmAccess.containsKey("roles")) {
-                List<String> roles = (List<String>) realmAccess.get("roles");
-                rolesAuthorities = roles.stream()
-                        .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-                        .collect(Collectors.toList());
+                return (List<String>) realmAccess.get("roles");
             }
         }
+        return List.of();
+    }
 
-        return rolesAuthorities;
+    private List<GrantedAuthority> evaluatePermissions(Jwt jwt) {
+        return localPolicyDecisionTable.grantedPermissions(realmRoles(jwt)).stream()
+                .map(permission -> authority("PERMISSION_" + permission))
+                .collect(Collectors.toList());
     }
 
     private List<GrantedAuthority> extractPermissions(Jwt jwt) {
@@ -100,7 +140,7 @@ public class SecurityConfig {
                             return scopes.stream()
                                     .map(scope -> {
                                         // Format: PERMISSION_resource:scope
-                                        return new SimpleGrantedAuthority("PERMISSION_" + resourceName + ":" + scope);
+                                        return authority("PERMISSION_" + resourceName + ":" + scope);
                                     });
                         })
                         .collect(Collectors.toList());
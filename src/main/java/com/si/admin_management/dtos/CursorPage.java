@@ -0,0 +1,20 @@
+package com.si.admin_management.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Page read by keyset: nextCursor is passed back as the cursor parameter to read the following
+ * page, and is null on the last one.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+}
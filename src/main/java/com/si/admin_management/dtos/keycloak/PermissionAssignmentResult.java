@@ -0,0 +1,21 @@
+package com.si.admin_management.dtos.keycloak;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PermissionAssignmentResult {
+    private String name;
+    private Status status;
+    private String message;
+
+    public enum Status {
+        ASSIGNED,
+        ALREADY_ASSIGNED,
+        NOT_FOUND,
+        FAILED
+    }
+}
@@ -0,0 +1,22 @@
+package com.si.admin_management.dtos.keycloak;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportResult {
+    private int row;
+    private String email;
+    private Status status;
+    private String userId;
+    private String message;
+
+    public enum Status {
+        CREATED,
+        INVALID,
+        FAILED
+    }
+}
@@ -0,0 +1,25 @@
+package com.si.admin_management.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Prochaine valeur à réserver pour un préfixe de numéro d'enregistrement (PAT, DOC, RDV).
+ */
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+@Table(name = "registration_sequence")
+public class RegistrationSequenceEntity implements Serializable {
+    @Id
+    @Column(length = 16)
+    private String prefix;
+
+    @Column(nullable = false)
+    private long nextValue;
+}
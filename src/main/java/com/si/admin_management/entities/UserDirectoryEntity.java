@@ -0,0 +1,43 @@
+package com.si.admin_management.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Copie locale d'un utilisateur Keycloak et de ses rôles de realm, pour lister et rechercher sans appeler Keycloak.
+ */
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+@Table(name = "user_directory", indexes = {
+        @Index(name = "idx_user_directory_username", columnList = "username"),
+        @Index(name = "idx_user_directory_email", columnList = "email")
+})
+public class UserDirectoryEntity implements Serializable {
+    // Identifiant Keycloak de l'utilisateur
+    @Id
+    private String id;
+
+    private String username;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String email;
+
+    private boolean enabled;
+
+    // Rôles de realm effectifs, séparés par des virgules
+    @Column(length = 1024)
+    private String realmRoles;
+
+    @Column(nullable = false)
+    private Instant syncedAt;
+}
@@ -18,4 +18,15 @@ public class ApiExceptionHandler {
         ApiException exception = new ApiException(e.getMessage(), LocalDateTime.now());
         return new ResponseEntity<>(exception, HttpStatus.BAD_REQUEST);
     }
+    @ExceptionHandler(value = {InvalidCursorException.class})
+    public ResponseEntity<ApiException> handleInvalidCursorException(InvalidCursorException e) {
+        ApiException exception = new ApiException(e.getMessage(), LocalDateTime.now());
+        return new ResponseEntity<>(exception, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(value = {InvalidPageSizeException.class})
+    public ResponseEntity<ApiException> handleInvalidPageSizeException(InvalidPageSizeException e) {
+        ApiException exception = new ApiException(e.getMessage(), LocalDateTime.now());
+        return new ResponseEntity<>(exception, HttpStatus.BAD_REQUEST);
+    }
 }
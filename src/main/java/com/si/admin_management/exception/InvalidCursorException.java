@@ -0,0 +1,14 @@
+package com.si.admin_management.exception;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class InvalidCursorException extends RuntimeException {
+    private String message;
+}
@@ -1,9 +1,63 @@
 package com.si.admin_management.repositories;
 
+import com.si.admin_management.dtos.appointments.AppointmentDtoResponse;
 import com.si.admin_management.entities.AppointmentEntity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface AppointmentRepository extends JpaRepository<AppointmentEntity , String> {
+    // Page de rendez-vous avec les noms du patient et du médecin, en une requête (plus le comptage)
+    @Query(value = "select new com.si.admin_management.dtos.appointments.AppointmentDtoResponse(" +
+            "a.id, a.appointmentDate, a.reason, a.status, a.patientId, a.doctorId," +
+            " concat(d.firstName, ' ', d.lastName), concat(p.firstName, ' ', p.lastName), a.appointmentNum)" +
+            " from AppointmentEntity a" +
+            " left join PatientEntity p on p.id = a.patientId" +
+            " left join DoctorEntity d on d.id = a.doctorId",
+            countQuery = "select count(a) from AppointmentEntity a")
+    Page<AppointmentDtoResponse> findPageWithNames(Pageable pageable);
+
+    // Sans comptage : une ligne de plus est lue pour savoir s'il existe une page suivante
+    @Query("select new com.si.admin_management.dtos.appointments.AppointmentDtoResponse(" +
+            "a.id, a.appointmentDate, a.reason, a.status, a.patientId, a.doctorId," +
+            " concat(d.firstName, ' ', d.lastName), concat(p.firstName, ' ', p.lastName), a.appointmentNum)" +
+            " from AppointmentEntity a" +
+            " left join PatientEntity p on p.id = a.patientId" +
+            " left join DoctorEntity d on d.id = a.doctorId")
+    Slice<AppointmentDtoResponse> findSliceWithNames(Pageable pageable);
+
+    // Pagination par clé (date du rendez-vous puis id) : le coût d'une page ne dépend pas de sa position
+    @Query("select new com.si.admin_management.dtos.appointments.AppointmentDtoResponse(" +
+            "a.id, a.appointmentDate, a.reason, a.status, a.patientId, a.doctorId," +
+            " concat(d.firstName, ' ', d.lastName), concat(p.firstName, ' ', p.lastName), a.appointmentNum)" +
+            " from AppointmentEntity a" +
+            " left join PatientEntity p on p.id = a.patientId" +
+            " left join DoctorEntity d on d.id = a.doctorId" +
+            " order by a.appointmentDate, a.id")
+    List<AppointmentDtoResponse> findKeysetFirstPageWithNames(Pageable limit);
+
+    @Query("select new com.si.admin_management.dtos.appointments.AppointmentDtoResponse(" +
+            "a.id, a.appointmentDate, a.reason, a.status, a.patientId, a.doctorId," +
+            " concat(d.firstName, ' ', d.lastName), concat(p.firstName, ' ', p.lastName), a.appointmentNum)" +
+            " from AppointmentEntity a" +
+            " left join PatientEntity p on p.id = a.patientId" +
+            " left join DoctorEntity d on d.id = a.doctorId" +
+            " where a.appointmentDate > :appointmentDate" +
+            " or (a.appointmentDate = :appointmentDate and a.id > :id)" +
+            " order by a.appointmentDate, a.id")
+    List<AppointmentDtoResponse> findKeysetPageAfterWithNames(@Param("appointmentDate") LocalDateTime appointmentDate,
+                                                       @Param("id") String id, Pageable limit);
+
+    // Tri par longueur d'abord : RDV-1000000 passe avant RDV-999999
+    @Query("select a.appointmentNum from AppointmentEntity a order by length(a.appointmentNum) desc, a.appointmentNum desc limit 1")
+    Optional<String> findMaxAppointmentNum();
 }
@@ -1,14 +1,53 @@
 package com.si.admin_management.repositories;
 
+import com.si.admin_management.dtos.doctors.DoctorDtoResponse;
 import com.si.admin_management.entities.DoctorEntity;
 import com.si.admin_management.entities.PatientEntity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface DoctorRepository extends JpaRepository<DoctorEntity, String> {
     Optional<DoctorEntity> findByEmail(String email);
     Optional<PatientEntity> findByTelephone(String telephone);
+
+    // Liste en lecture seule : projection directe dans le DTO, sans entité gérée ni mapping
+    @Query(value = "select new com.si.admin_management.dtos.doctors.DoctorDtoResponse(" +
+            "d.id, d.firstName, d.lastName, d.email, d.telephone, d.specialty, d.registrationNumber)" +
+            " from DoctorEntity d",
+            countQuery = "select count(d) from DoctorEntity d")
+    Page<DoctorDtoResponse> findPage(Pageable pageable);
+
+    // Sans comptage : une ligne de plus est lue pour savoir s'il existe une page suivante
+    @Query("select new com.si.admin_management.dtos.doctors.DoctorDtoResponse(" +
+            "d.id, d.firstName, d.lastName, d.email, d.telephone, d.specialty, d.registrationNumber)" +
+            " from DoctorEntity d")
+    Slice<DoctorDtoResponse> findSlice(Pageable pageable);
+
+    // Pagination par clé (numéro d'enregistrement puis id) : le coût d'une page ne dépend pas de sa position
+    @Query("select new com.si.admin_management.dtos.doctors.DoctorDtoResponse(" +
+            "d.id, d.firstName, d.lastName, d.email, d.telephone, d.specialty, d.registrationNumber)" +
+            " from DoctorEntity d order by d.registrationNumber, d.id")
+    List<DoctorDtoResponse> findKeysetFirstPage(Pageable limit);
+
+    @Query("select new com.si.admin_management.dtos.doctors.DoctorDtoResponse(" +
+            "d.id, d.firstName, d.lastName, d.email, d.telephone, d.specialty, d.registrationNumber)" +
+            " from DoctorEntity d" +
+            " where d.registrationNumber > :registrationNumber" +
+            " or (d.registrationNumber = :registrationNumber and d.id > :id)" +
+            " order by d.registrationNumber, d.id")
+    List<DoctorDtoResponse> findKeysetPageAfter(@Param("registrationNumber") String registrationNumber, @Param("id") String id,
+                                         Pageable limit);
+
+    // Numéro le plus élevé en valeur et non dans l'ordre alphabétique (DOC-1000000 après DOC-999999)
+    @Query("select d.registrationNumber from DoctorEntity d order by length(d.registrationNumber) desc, d.registrationNumber desc limit 1")
+    Optional<String> findMaxRegistrationNumber();
 }
@@ -1,12 +1,55 @@
 package com.si.admin_management.repositories;
 
+import com.si.admin_management.dtos.patients.PatientDtoResponse;
 import com.si.admin_management.entities.PatientEntity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PatientRepository extends JpaRepository<PatientEntity,String> {
     Optional<PatientEntity> findByPhoneNumber(String phoneNumber);
+
+    // Liste en lecture seule : projection directe dans le DTO, sans entité gérée ni mapping
+    @Query(value = "select new com.si.admin_management.dtos.patients.PatientDtoResponse(" +
+            "p.id, p.firstName, p.lastName, p.birthDate, p.placeOfBirth, p.gender, p.phoneNumber, p.address," +
+            " p.registrationNumber, p.personToNotifyName, p.personToNotifyPhoneNumber)" +
+            " from PatientEntity p",
+            countQuery = "select count(p) from PatientEntity p")
+    Page<PatientDtoResponse> findPage(Pageable pageable);
+
+    // Sans comptage : une ligne de plus est lue pour savoir s'il existe une page suivante
+    @Query("select new com.si.admin_management.dtos.patients.PatientDtoResponse(" +
+            "p.id, p.firstName, p.lastName, p.birthDate, p.placeOfBirth, p.gender, p.phoneNumber, p.address," +
+            " p.registrationNumber, p.personToNotifyName, p.personToNotifyPhoneNumber)" +
+            " from PatientEntity p")
+    Slice<PatientDtoResponse> findSlice(Pageable pageable);
+
+    // Pagination par clé (numéro d'enregistrement puis id) : le coût d'une page ne dépend pas de sa position
+    @Query("select new com.si.admin_management.dtos.patients.PatientDtoResponse(" +
+            "p.id, p.firstName, p.lastName, p.birthDate, p.placeOfBirth, p.gender, p.phoneNumber, p.address," +
+            " p.registrationNumber, p.personToNotifyName, p.personToNotifyPhoneNumber)" +
+            " from PatientEntity p order by p.registrationNumber, p.id")
+    List<PatientDtoResponse> findKeysetFirstPage(Pageable limit);
+
+    @Query("select new com.si.admin_management.dtos.patients.PatientDtoResponse(" +
+            "p.id, p.firstName, p.lastName, p.birthDate, p.placeOfBirth, p.gender, p.phoneNumber, p.address," +
+            " p.registrationNumber, p.personToNotifyName, p.personToNotifyPhoneNumber)" +
+            " from PatientEntity p" +
+            " where p.registrationNumber > :registrationNumber" +
+            " or (p.registrationNumber = :registrationNumber and p.id > :id)" +
+            " order by p.registrationNumber, p.id")
+    List<PatientDtoResponse> findKeysetPageAfter(@Param("registrationNumber") String registrationNumber, @Param("id") String id,
+                                          Pageable limit);
+
+    // Plus grand numéro en valeur : les numéros plus longs que la largeur (PAT-1000000) passent avant les autres
+    @Query("select p.registrationNumber from PatientEntity p order by length(p.registrationNumber) desc, p.registrationNumber desc limit 1")
+    Optional<String> findMaxRegistrationNumber();
 }
@@ -0,0 +1,18 @@
+package com.si.admin_management.repositories;
+
+import com.si.admin_management.entities.RegistrationSequenceEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface RegistrationSequenceRepository extends JpaRepository<RegistrationSequenceEntity, String> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from RegistrationSequenceEntity s where s.prefix = :prefix")
+    Optional<RegistrationSequenceEntity> findForUpdate(@Param("prefix") String prefix);
+}
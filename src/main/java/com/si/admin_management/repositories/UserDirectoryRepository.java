@@ -0,0 +1,18 @@
+package com.si.admin_management.repositories;
+
+import com.si.admin_management.entities.UserDirectoryEntity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserDirectoryRepository extends JpaRepository<UserDirectoryEntity, String> {
+    @Query("select u from UserDirectoryEntity u where lower(u.username) like lower(concat('%', :search, '%'))" +
+            " or lower(u.email) like lower(concat('%', :search, '%'))" +
+            " or lower(u.firstName) like lower(concat('%', :search, '%'))" +
+            " or lower(u.lastName) like lower(concat('%', :search, '%'))")
+    Page<UserDirectoryEntity> search(@Param("search") String search, Pageable pageable);
+}
@@ -1,15 +1,21 @@
 package com.si.admin_management.services.appointments;
 
+import com.si.admin_management.dtos.CursorPage;
 import com.si.admin_management.dtos.appointments.AppointmentDtoResponse;
 import com.si.admin_management.dtos.appointments.AppointmentDtoRequest;
 import com.si.admin_management.entities.AppointmentEntity;
 import com.si.admin_management.entities.AppointmentStatus;
 import com.si.admin_management.exception.EntityNotFoundException;
+import com.si.admin_management.exception.InvalidCursorException;
+import com.si.admin_management.exception.InvalidPageSizeException;
 import com.si.admin_management.mappers.AppointmentMapper;
 import com.si.admin_management.repositories.AppointmentRepository;
+import com.si.admin_management.services.counts.RowCountCache;
+import com.si.admin_management.services.counts.RowCountCache.Table;
 import com.si.admin_management.services.doctors.IDoctorService;
 import com.si.admin_management.services.patients.IPatientService;
-import com.si.admin_management.utils.RegistrationNumber;
+import com.si.admin_management.services.registration.RegistrationNumberAllocator;
+import com.si.admin_management.utils.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,11 +23,15 @@ import org.springframework.context.MessageSource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
 
@@ -33,8 +43,9 @@ public class AppointmentServiceImpl implements IAppointmentService{
     private final IDoctorService doctorService;
     private final AppointmentMapper appointmentMapper;
     private final MessageSource messageSource;
+    private final RegistrationNumberAllocator registrationNumberAllocator;
+    private final RowCountCache rowCountCache;
     private final Logger logger = LoggerFactory.getLogger(AppointmentServiceImpl.class);
-    private final RegistrationNumber registrationNumber = new RegistrationNumber();
 
     @Override
     public Optional<AppointmentDtoResponse> saveAppointment(AppointmentDtoRequest appointmentDtoRequest){
@@ -47,7 +58,7 @@ public class AppointmentServiceImpl implements IAppointmentService{
             throw new EntityNotFoundException(messageSource.getMessage("doctor.notfound", new Object[]{appointmentDtoRequest.getDoctorId()}, Locale.getDefault()));
         }
         AppointmentEntity appointment = appointmentMapper.toAppointmentEntity(appointmentDtoRequest);
-        appointment.setAppointmentNum(registrationNumber.generate("RDV" , appointmentRepository.count()));
+        appointment.setAppointmentNum(registrationNumberAllocator.next("RDV", appointmentRepository::findMaxAppointmentNum));
         appointment.setStatus(AppointmentStatus.SCHEDULED);
         appointment.setCreatedDate(LocalDateTime.now());
         appointment.setCreatedBy(createdBy);
@@ -55,23 +66,50 @@ public class AppointmentServiceImpl implements IAppointmentService{
         logger.info("Appointment : {}", appointment);
 
         AppointmentEntity appointmentEntity = appointmentRepository.save(appointment);
+        rowCountCache.adjust(Table.APPOINTMENTS, 1);
         AppointmentDtoResponse appointmentDtoResponse = appointmentMapper.toAppointmentDtoResponse(appointmentEntity);
         return Optional.of(appointmentDtoResponse);
     }
 
 
     @Override
+    @Transactional(readOnly = true)
     public Page<AppointmentDtoResponse> getAppointments(int pageNumber , int pageSize){
         Pageable pagedRequest = PageRequest.of(pageNumber,pageSize);
-        Page<AppointmentEntity> appointmentsEntities = appointmentRepository.findAll(pagedRequest);
-        return appointmentsEntities.map(item -> {
-            AppointmentDtoResponse appointmentDtoResponse = appointmentMapper.toAppointmentDtoResponse(item);
-            var patient = patientService.getPatientById(item.getPatientId()).get();
-            var doctor = doctorService.getDoctorById(item.getDoctorId()).get();
-            appointmentDtoResponse.setPatientName(patient.getFirstName()+" "+patient.getLastName());
-            appointmentDtoResponse.setDoctorName(doctor.getFirstName()+" "+doctor.getLastName());
-            return appointmentDtoResponse;
-        });
+        // Les noms viennent de la jointure : pas de lecture du patient et du médecin par ligne
+        return appointmentRepository.findPageWithNames(pagedRequest);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<AppointmentDtoResponse> getAppointmentsWithApproximateTotal(int pageNumber , int pageSize){
+        Pageable pagedRequest = PageRequest.of(pageNumber,pageSize);
+        return rowCountCache.toPage(appointmentRepository.findSliceWithNames(pagedRequest), Table.APPOINTMENTS);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<AppointmentDtoResponse> getAppointmentsSlice(int pageNumber , int pageSize){
+        Pageable pagedRequest = PageRequest.of(pageNumber,pageSize);
+        return appointmentRepository.findSliceWithNames(pagedRequest);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<AppointmentDtoResponse> getAppointmentsAfter(String cursor, int pageSize){
+        if (!KeysetCursor.isValidPageSize(pageSize)) {
+            throw invalidPageSize();
+        }
+        // Une ligne de plus que la page pour savoir s'il en existe une suivante, sans comptage
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<AppointmentDtoResponse> appointments;
+        if (cursor == null || cursor.isBlank()) {
+            appointments = appointmentRepository.findKeysetFirstPageWithNames(limit);
+        } else {
+            String[] key = KeysetCursor.decode(cursor, 2).orElseThrow(this::invalidCursor);
+            appointments = appointmentRepository.findKeysetPageAfterWithNames(parseDate(key[0]), key[1], limit);
+        }
+        return KeysetCursor.page(appointments, pageSize, appointment -> new String[]{appointment.getAppointmentDate().toString(), appointment.getId()});
     }
 
     @Override
@@ -104,6 +142,24 @@ public class AppointmentServiceImpl implements IAppointmentService{
             throw new EntityNotFoundException(messageSource.getMessage("appointment.notfound", new Object[]{id}, Locale.getDefault()));
         }
         appointmentRepository.deleteById(id);
+        rowCountCache.adjust(Table.APPOINTMENTS, -1);
         return true;
     }
+
+    private InvalidCursorException invalidCursor() {
+        return new InvalidCursorException(messageSource.getMessage("cursor.invalid", null, Locale.getDefault()));
+    }
+
+    private InvalidPageSizeException invalidPageSize() {
+        return new InvalidPageSizeException(messageSource.getMessage("page.size.invalid",
+                new Object[]{KeysetCursor.MAX_PAGE_SIZE}, Locale.getDefault()));
+    }
+
+    private LocalDateTime parseDate(String appointmentDate) {
+        try {
+            return LocalDateTime.parse(appointmentDate);
+        } catch (DateTimeParseException e) {
+            throw invalidCursor();
+        }
+    }
 }
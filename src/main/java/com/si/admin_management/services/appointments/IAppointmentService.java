@@ -1,14 +1,19 @@
 package com.si.admin_management.services.appointments;
 
+import com.si.admin_management.dtos.CursorPage;
 import com.si.admin_management.dtos.appointments.AppointmentDtoRequest;
 import com.si.admin_management.dtos.appointments.AppointmentDtoResponse;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.Optional;
 
 public interface IAppointmentService {
     Optional<AppointmentDtoResponse> saveAppointment(AppointmentDtoRequest appointmentDtoRequest);
     Page<AppointmentDtoResponse> getAppointments(int pageNumber , int pageSize);
+    Page<AppointmentDtoResponse> getAppointmentsWithApproximateTotal(int pageNumber , int pageSize);
+    Slice<AppointmentDtoResponse> getAppointmentsSlice(int pageNumber , int pageSize);
+    CursorPage<AppointmentDtoResponse> getAppointmentsAfter(String cursor, int pageSize);
     Optional<AppointmentDtoResponse> getAppointmentById(String appointmentId);
     Optional<AppointmentDtoResponse> updateAppointment(String appointmentId, AppointmentDtoRequest appointmentDtoRequest);
     boolean deleteAppointment(String appointmentId);
@@ -0,0 +1,79 @@
+package com.si.admin_management.services.counts;
+
+import com.si.admin_management.repositories.AppointmentRepository;
+import com.si.admin_management.repositories.DoctorRepository;
+import com.si.admin_management.repositories.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Approximate row counts of the paged tables, so that list endpoints can report a total without a
+ * COUNT(*) per request. Counts are recounted periodically and adjusted in between as the services
+ * create and delete rows; a table is counted on first use if no refresh has run yet.
+ */
+@Service
+public class RowCountCache {
+    private static final long UNKNOWN = -1;
+    private final Logger logger = LoggerFactory.getLogger(RowCountCache.class);
+    private final Map<Table, LongSupplier> counters = new EnumMap<>(Table.class);
+    private final Map<Table, AtomicLong> counts = new EnumMap<>(Table.class);
+
+    public RowCountCache(PatientRepository patientRepository, DoctorRepository doctorRepository,
+                         AppointmentRepository appointmentRepository) {
+        counters.put(Table.PATIENTS, patientRepository::count);
+        counters.put(Table.DOCTORS, doctorRepository::count);
+        counters.put(Table.APPOINTMENTS, appointmentRepository::count);
+        for (Table table : Table.values()) {
+            counts.put(table, new AtomicLong(UNKNOWN));
+        }
+    }
+
+    public long get(Table table) {
+        long count = counts.get(table).get();
+        return count != UNKNOWN ? count : refresh(table);
+    }
+
+    public void adjust(Table table, long delta) {
+        counts.get(table).updateAndGet(count -> count == UNKNOWN ? UNKNOWN : Math.max(0, count + delta));
+    }
+
+    // Page construite à partir d'une Slice : le total vient du cache, sans contredire ce que la Slice a lu
+    public <T> Page<T> toPage(Slice<T> slice, Table table) {
+        long read = slice.getPageable().getOffset() + slice.getNumberOfElements();
+        long total = slice.hasNext() ? Math.max(get(table), read + 1) : read;
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), total);
+    }
+
+    @Scheduled(initialDelayString = "${pagination.count-refresh-interval-ms:60000}",
+            fixedDelayString = "${pagination.count-refresh-interval-ms:60000}")
+    public void refresh() {
+        for (Table table : Table.values()) {
+            try {
+                refresh(table);
+            } catch (RuntimeException e) {
+                // On garde la dernière valeur connue jusqu'au prochain passage
+                logger.warn("Unable to count {} : {}", table, e.getMessage());
+            }
+        }
+    }
+
+    private long refresh(Table table) {
+        long count = counters.get(table).getAsLong();
+        counts.get(table).set(count);
+        return count;
+    }
+
+    public enum Table {
+        PATIENTS, DOCTORS, APPOINTMENTS
+    }
+}
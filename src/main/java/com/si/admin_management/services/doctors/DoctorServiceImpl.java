@@ -1,13 +1,19 @@
 package com.si.admin_management.services.doctors;
 
+import com.si.admin_management.dtos.CursorPage;
 import com.si.admin_management.dtos.doctors.DoctorDtoRequest;
 import com.si.admin_management.dtos.doctors.DoctorDtoResponse;
 import com.si.admin_management.entities.DoctorEntity;
 import com.si.admin_management.exception.EntityExistsException;
 import com.si.admin_management.exception.EntityNotFoundException;
+import com.si.admin_management.exception.InvalidCursorException;
+import com.si.admin_management.exception.InvalidPageSizeException;
 import com.si.admin_management.mappers.DoctorMapper;
 import com.si.admin_management.repositories.DoctorRepository;
-import com.si.admin_management.utils.RegistrationNumber;
+import com.si.admin_management.services.counts.RowCountCache;
+import com.si.admin_management.services.counts.RowCountCache.Table;
+import com.si.admin_management.services.registration.RegistrationNumberAllocator;
+import com.si.admin_management.utils.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,8 +21,11 @@ import org.springframework.context.MessageSource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
 
@@ -26,8 +35,9 @@ public class DoctorServiceImpl implements IDoctorService {
     private final DoctorRepository doctorRepository;
     private final DoctorMapper doctorMapper;
     private final MessageSource messageSource;
+    private final RegistrationNumberAllocator registrationNumberAllocator;
+    private final RowCountCache rowCountCache;
     private final Logger logger = LoggerFactory.getLogger(DoctorServiceImpl.class);
-    private final RegistrationNumber registrationNumber = new RegistrationNumber();
 
     @Override
     public Optional<DoctorDtoResponse> saveDoctor(DoctorDtoRequest doctorDtoRequest){
@@ -35,20 +45,53 @@ public class DoctorServiceImpl implements IDoctorService {
             throw new EntityExistsException(messageSource.getMessage("doctor.exists", new Object[]{doctorDtoRequest.getEmail()}, Locale.getDefault()));
         }
         DoctorEntity doctor = doctorMapper.toDoctorEntity(doctorDtoRequest);
-        doctor.setRegistrationNumber(registrationNumber.generate("DOC" , doctorRepository.count()));
+        doctor.setRegistrationNumber(registrationNumberAllocator.next("DOC", doctorRepository::findMaxRegistrationNumber));
         logger.info("Doctor : {}", doctor);
 
         DoctorEntity doctorEntity = doctorRepository.save(doctor);
+        rowCountCache.adjust(Table.DOCTORS, 1);
         DoctorDtoResponse doctorDtoResponse = doctorMapper.toDoctorDtoResponse(doctorEntity);
         return Optional.of(doctorDtoResponse);
     }
 
 
     @Override
+    @Transactional(readOnly = true)
     public Page<DoctorDtoResponse> getDoctors(int pageNumber , int pageSize){
         Pageable pagedRequest = PageRequest.of(pageNumber,pageSize);
-        Page<DoctorEntity> doctorsEntities = doctorRepository.findAll(pagedRequest);
-        return doctorsEntities.map(doctorMapper::toDoctorDtoResponse);
+        return doctorRepository.findPage(pagedRequest);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<DoctorDtoResponse> getDoctorsWithApproximateTotal(int pageNumber , int pageSize){
+        Pageable pagedRequest = PageRequest.of(pageNumber,pageSize);
+        return rowCountCache.toPage(doctorRepository.findSlice(pagedRequest), Table.DOCTORS);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<DoctorDtoResponse> getDoctorsSlice(int pageNumber , int pageSize){
+        Pageable pagedRequest = PageRequest.of(pageNumber,pageSize);
+        return doctorRepository.findSlice(pagedRequest);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<DoctorDtoResponse> getDoctorsAfter(String cursor, int pageSize){
+        if (!KeysetCursor.isValidPageSize(pageSize)) {
+            throw invalidPageSize();
+        }
+        // Une ligne de plus que la page pour savoir s'il en existe une suivante, sans comptage
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<DoctorDtoResponse> doctors;
+        if (cursor == null || cursor.isBlank()) {
+            doctors = doctorRepository.findKeysetFirstPage(limit);
+        } else {
+            String[] key = KeysetCursor.decode(cursor, 2).orElseThrow(this::invalidCursor);
+            doctors = doctorRepository.findKeysetPageAfter(key[0], key[1], limit);
+        }
+        return KeysetCursor.page(doctors, pageSize, doctor -> new String[]{doctor.getRegistrationNumber(), doctor.getId()});
     }
 
     @Override
@@ -80,6 +123,16 @@ public class DoctorServiceImpl implements IDoctorService {
             throw new EntityNotFoundException(messageSource.getMessage("doctor.notfound", new Object[]{id}, Locale.getDefault()));
         }
         doctorRepository.deleteById(id);
+        rowCountCache.adjust(Table.DOCTORS, -1);
         return true;
     }
+
+    private InvalidCursorException invalidCursor() {
+        return new InvalidCursorException(messageSource.getMessage("cursor.invalid", null, Locale.getDefault()));
+    }
+
+    private InvalidPageSizeException invalidPageSize() {
+        return new InvalidPageSizeException(messageSource.getMessage("page.size.invalid",
+                new Object[]{KeysetCursor.MAX_PAGE_SIZE}, Locale.getDefault()));
+    }
 }
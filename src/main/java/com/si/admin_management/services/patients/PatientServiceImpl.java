@@ -1,13 +1,19 @@
 package com.si.admin_management.services.patients;
 
+import com.si.admin_management.dtos.CursorPage;
 import com.si.admin_management.dtos.patients.PatientDtoRequest;
 import com.si.admin_management.dtos.patients.PatientDtoResponse;
 import com.si.admin_management.entities.PatientEntity;
 import com.si.admin_management.exception.EntityExistsException;
 import com.si.admin_management.exception.EntityNotFoundException;
+import com.si.admin_management.exception.InvalidCursorException;
+import com.si.admin_management.exception.InvalidPageSizeException;
 import com.si.admin_management.mappers.PatientMapper;
 import com.si.admin_management.repositories.PatientRepository;
-import com.si.admin_management.utils.RegistrationNumber;
+import com.si.admin_management.services.counts.RowCountCache;
+import com.si.admin_management.services.counts.RowCountCache.Table;
+import com.si.admin_management.services.registration.RegistrationNumberAllocator;
+import com.si.admin_management.utils.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,8 +21,11 @@ import org.springframework.context.MessageSource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
 
@@ -26,8 +35,9 @@ public class PatientServiceImpl implements IPatientService {
     private final PatientRepository patientRepository;
     private final PatientMapper patientMapper;
     private final MessageSource messageSource;
+    private final RegistrationNumberAllocator registrationNumberAllocator;
+    private final RowCountCache rowCountCache;
     private final Logger logger = LoggerFactory.getLogger(PatientServiceImpl.class);
-    private final RegistrationNumber registrationNumber = new RegistrationNumber();
 
     @Override
     public Optional<PatientDtoResponse> savePatient(PatientDtoRequest patientDtoRequest){
@@ -35,20 +45,53 @@ public class PatientServiceImpl implements IPatientService {
             throw new EntityExistsException(messageSource.getMessage("patient.exists", new Object[]{patientDtoRequest.getPhoneNumber()}, Locale.getDefault()));
         }
         PatientEntity patient = patientMapper.toPatientEntity(patientDtoRequest);
-        patient.setRegistrationNumber(registrationNumber.generate("PAT" , patientRepository.count()));
+        patient.setRegistrationNumber(registrationNumberAllocator.next("PAT", patientRepository::findMaxRegistrationNumber));
         logger.info("Patient : {}", patient);
 
         PatientEntity patientEntity = patientRepository.save(patient);
+        rowCountCache.adjust(Table.PATIENTS, 1);
         PatientDtoResponse patientDtoResponse = patientMapper.toPatientDtoResponse(patientEntity);
         return Optional.of(patientDtoResponse);
     }
 
 
     @Override
+    @Transactional(readOnly = true)
     public Page<PatientDtoResponse> getPatients(int pageNumber , int pageSize){
         Pageable pagedRequest = PageRequest.of(pageNumber,pageSize);
-        Page<PatientEntity> patientsEntities = patientRepository.findAll(pagedRequest);
-        return patientsEntities.map(patientMapper::toPatientDtoResponse);
+        return patientRepository.findPage(pagedRequest);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<PatientDtoResponse> getPatientsWithApproximateTotal(int pageNumber , int pageSize){
+        Pageable pagedRequest = PageRequest.of(pageNumber,pageSize);
+        return rowCountCache.toPage(patientRepository.findSlice(pagedRequest), Table.PATIENTS);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<PatientDtoResponse> getPatientsSlice(int pageNumber , int pageSize){
+        Pageable pagedRequest = PageRequest.of(pageNumber,pageSize);
+        return patientRepository.findSlice(pagedRequest);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<PatientDtoResponse> getPatientsAfter(String cursor, int pageSize){
+        if (!KeysetCursor.isValidPageSize(pageSize)) {
+            throw invalidPageSize();
+        }
+        // Une ligne de plus que la page pour savoir s'il en existe une suivante, sans comptage
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<PatientDtoResponse> patients;
+        if (cursor == null || cursor.isBlank()) {
+            patients = patientRepository.findKeysetFirstPage(limit);
+        } else {
+            String[] key = KeysetCursor.decode(cursor, 2).orElseThrow(this::invalidCursor);
+            patients = patientRepository.findKeysetPageAfter(key[0], key[1], limit);
+        }
+        return KeysetCursor.page(patients, pageSize, patient -> new String[]{patient.getRegistrationNumber(), patient.getId()});
     }
 
     @Override
@@ -84,6 +127,16 @@ public class PatientServiceImpl implements IPatientService {
             throw new EntityNotFoundException(messageSource.getMessage("patient.notfound", new Object[]{id}, Locale.getDefault()));
         }
         patientRepository.deleteById(id);
+        rowCountCache.adjust(Table.PATIENTS, -1);
         return true;
     }
+
+    private InvalidCursorException invalidCursor() {
+        return new InvalidCursorException(messageSource.getMessage("cursor.invalid", null, Locale.getDefault()));
+    }
+
+    private InvalidPageSizeException invalidPageSize() {
+        return new InvalidPageSizeException(messageSource.getMessage("page.size.invalid",
+                new Object[]{KeysetCursor.MAX_PAGE_SIZE}, Locale.getDefault()));
+    }
 }
@@ -0,0 +1,112 @@
+package com.si.admin_management.services.registration;
+
+import com.si.admin_management.entities.RegistrationSequenceEntity;
+import com.si.admin_management.repositories.RegistrationSequenceRepository;
+import com.si.admin_management.utils.RegistrationNumber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Hands out registration numbers per prefix (PAT, DOC, RDV) from blocks reserved in the
+ * registration_sequence table. A block is reserved under a row lock in its own transaction, then
+ * served from memory, so inserts never count the table and concurrent inserts, on one instance or
+ * several, never get the same number. Numbers left in a block at shutdown are skipped.
+ */
+@Service
+public class RegistrationNumberAllocator {
+    private final Logger logger = LoggerFactory.getLogger(RegistrationNumberAllocator.class);
+    private final RegistrationSequenceRepository registrationSequenceRepository;
+    private final TransactionOperations requiresNew;
+    private final RegistrationNumber registrationNumber;
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    @Value("${registration-number.block-size:50}")
+    private int blockSize = 50;
+
+    @Autowired
+    public RegistrationNumberAllocator(RegistrationSequenceRepository registrationSequenceRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${registration-number.width:6}") int width) {
+        this(registrationSequenceRepository, requiresNew(transactionManager), new RegistrationNumber(width));
+    }
+
+    RegistrationNumberAllocator(RegistrationSequenceRepository registrationSequenceRepository,
+                                TransactionOperations requiresNew, RegistrationNumber registrationNumber) {
+        this.registrationSequenceRepository = registrationSequenceRepository;
+        this.requiresNew = requiresNew;
+        this.registrationNumber = registrationNumber;
+    }
+
+    // lastIssued n'est lu qu'à la création de la séquence, pour reprendre après les numéros existants
+    public String next(String prefix, Supplier<Optional<String>> lastIssued) {
+        Block block = blocks.computeIfAbsent(prefix, p -> new Block());
+        long value;
+        synchronized (block) {
+            if (block.next >= block.limit) {
+                long start = reserve(prefix, lastIssued);
+                block.next = start;
+                block.limit = start + blockSize;
+            }
+            value = block.next++;
+        }
+        return registrationNumber.format(prefix, value);
+    }
+
+    private long reserve(String prefix, Supplier<Optional<String>> lastIssued) {
+        try {
+            return requiresNew.execute(status -> reserveBlock(prefix, lastIssued));
+        } catch (DataIntegrityViolationException e) {
+            // Une autre instance a créé la séquence en même temps : elle existe désormais
+            logger.debug("Registration sequence {} created concurrently, retrying", prefix);
+            return requiresNew.execute(status -> reserveBlock(prefix, lastIssued));
+        }
+    }
+
+    private long reserveBlock(String prefix, Supplier<Optional<String>> lastIssued) {
+        Optional<RegistrationSequenceEntity> existing = registrationSequenceRepository.findForUpdate(prefix);
+        if (existing.isPresent()) {
+            RegistrationSequenceEntity sequence = existing.get();
+            long start = sequence.getNextValue();
+            sequence.setNextValue(start + blockSize);
+            registrationSequenceRepository.save(sequence);
+            return start;
+        }
+        long start = lastIssued.get().map(number -> parse(prefix, number)).orElse(0L) + 1;
+        registrationSequenceRepository.saveAndFlush(new RegistrationSequenceEntity(prefix, start + blockSize));
+        logger.info("Registration sequence {} initialized at {}", prefix, start);
+        return start;
+    }
+
+    private long parse(String prefix, String number) {
+        try {
+            return Long.parseLong(number.substring(number.lastIndexOf('-') + 1));
+        } catch (NumberFormatException e) {
+            logger.warn("Unable to read last registration number {} for {}, starting at 1", number, prefix);
+            return 0L;
+        }
+    }
+
+    private static TransactionOperations requiresNew(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+
+    private static final class Block {
+        private long next;
+        private long limit;
+    }
+}
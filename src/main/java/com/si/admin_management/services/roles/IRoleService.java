@@ -4,6 +4,7 @@ import com.si.admin_management.dtos.keycloak.AppPermission;
 import com.si.admin_management.dtos.keycloak.AssignPermissionRequestDto;
 import com.si.admin_management.dtos.keycloak.KcRoleDto;
 import com.si.admin_management.dtos.keycloak.KcRoleDtoRequest;
+import com.si.admin_management.dtos.keycloak.PermissionAssignmentResult;
 import org.springframework.data.domain.Page;
 
 import java.util.List;
@@ -11,7 +12,9 @@ import java.util.List;
 public interface IRoleService {
     KcRoleDto createRole(KcRoleDtoRequest kcRoleDtoRequest);
     Page<KcRoleDto> getRoles(int pageNumber, int pageSize);
+    Page<KcRoleDto> searchRoles(String search, int pageNumber, int pageSize);
     List<AppPermission> getAllPermissions ();
-    void assignPermissionsToRole(String roleName, AssignPermissionRequestDto assignPermissionRequestDto);
+    PermissionCatalog.Snapshot getPermissionCatalog();
+    List<PermissionAssignmentResult> assignPermissionsToRole(String roleName, AssignPermissionRequestDto assignPermissionRequestDto);
     List<String> getPermissionsByRole (String roleName);
 }
@@ -0,0 +1,87 @@
+package com.si.admin_management.services.roles;
+
+import com.si.admin_management.dtos.keycloak.AppPermission;
+import com.si.admin_management.dtos.keycloak.PermissionItem;
+import com.si.admin_management.utils.SingleFlight;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Resource -> permission catalog as last loaded from Keycloak, tagged with a version derived from
+ * its content. It is reloaded once older than the requested max age or after an invalidation;
+ * concurrent reloads are collapsed into one.
+ */
+public class PermissionCatalog {
+    private final Supplier<List<AppPermission>> loader;
+    private final Clock clock;
+    private final SingleFlight<Long, Snapshot> loads = new SingleFlight<>();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public PermissionCatalog(Supplier<List<AppPermission>> loader) {
+        this(loader, Clock.systemUTC());
+    }
+
+    PermissionCatalog(Supplier<List<AppPermission>> loader, Clock clock) {
+        this.loader = loader;
+        this.clock = clock;
+    }
+
+    public Snapshot get(Duration maxAge) {
+        Snapshot current = snapshot;
+        if (current != null && clock.instant().isBefore(current.loadedAt().plus(maxAge))) {
+            return current;
+        }
+        long loadGeneration = generation.get();
+        return loads.execute(loadGeneration, () -> load(loadGeneration));
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private Snapshot load(long loadGeneration) {
+        List<AppPermission> permissions = List.copyOf(loader.get());
+        Snapshot loaded = new Snapshot(permissions, version(permissions), clock.instant());
+        // Un chargement commencé avant une invalidation n'est pas conservé
+        if (generation.get() == loadGeneration) {
+            snapshot = loaded;
+        }
+        return loaded;
+    }
+
+    private static String version(List<AppPermission> permissions) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (AppPermission permission : permissions) {
+                update(digest, permission.getResourceName());
+                update(digest, permission.getResourceDisplayName());
+                for (PermissionItem item : permission.getPermissions()) {
+                    update(digest, item.getName());
+                    update(digest, item.getDescription());
+                }
+            }
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    public record Snapshot(List<AppPermission> permissions, String version, Instant loadedAt) {
+    }
+}
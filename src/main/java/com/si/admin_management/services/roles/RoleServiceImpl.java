@@ -1,39 +1,61 @@
 package com.si.admin_management.services.roles;
 
 import com.si.admin_management.dtos.keycloak.*;
+import com.si.admin_management.exception.EntityNotFoundException;
 import com.si.admin_management.services.users.UserServiceImpl;
+import com.si.admin_management.utils.BoundedFanOut;
+import com.si.admin_management.utils.ExpiringCache;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.core.Response;
 import lombok.RequiredArgsConstructor;
 import org.keycloak.admin.client.Keycloak;
 import org.keycloak.admin.client.resource.AuthorizationResource;
 import org.keycloak.admin.client.resource.RolesResource;
+import org.keycloak.admin.client.resource.ScopePermissionResource;
 import org.keycloak.representations.idm.ClientRepresentation;
 import org.keycloak.representations.idm.RoleRepresentation;
 import org.keycloak.representations.idm.authorization.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class RoleServiceImpl implements IRoleService {
+    private static final int PERMISSIONS_PAGE_SIZE = 100;
+    private static final int ROLE_COUNTS_CACHE_SIZE = 100;
     private final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
     private final Keycloak  keycloakAdmin;
+    private final BoundedFanOut keycloakFanOut;
+    private final PermissionCatalog permissionCatalog = new PermissionCatalog(this::loadAllPermissions);
+    private final ExpiringCache<String, Long> roleCounts = new ExpiringCache<>(ROLE_COUNTS_CACHE_SIZE);
+    private volatile ResolvedClient resolvedClient;
 
     @Value("${keycloak.realm}")
     private String realm;
     @Value("${keycloak.client-id}")
     private String clientId;
+    @Value("${keycloak.permissions.catalog-max-age:5m}")
+    private Duration permissionCatalogMaxAge = Duration.ofMinutes(5);
+    @Value("${keycloak.roles.count-ttl:60s}")
+    private Duration roleCountTtl = Duration.ofSeconds(60);
 
 
     public KcRoleDto createRole(KcRoleDtoRequest kcRoleDtoRequest) {
@@ -44,10 +66,12 @@ public class RoleServiceImpl implements IRoleService {
         role.setName(kcRoleDtoRequest.getName());
         role.setDescription(kcRoleDtoRequest.getDescription());
         rolesResource.create(role);
+        roleCounts.clear();
 
         RoleRepresentation createdRole = rolesResource.get(kcRoleDtoRequest.getName()).toRepresentation();
         String policyName = createdRole.getName();
         createPolicy(policyName);
+        permissionCatalog.invalidate();
 
         KcRoleDto kcRoleDto = new KcRoleDto();
         kcRoleDto.setId(createdRole.getId());
@@ -71,7 +95,14 @@ public class RoleServiceImpl implements IRoleService {
         roles.add(roleDef);
 
         rolePolicy.setRoles(roles);
-        var policyCreated = keycloakAdmin.realm(realm).clients().get(getClientUUID()).authorization().policies().role().create(rolePolicy);
+        var policyCreated = withAuthorization(authorization -> {
+            Response response = authorization.policies().role().create(rolePolicy);
+            if (response.getStatus() == 404) {
+                response.close();
+                throw new NotFoundException();
+            }
+            return response;
+        });
         if (policyCreated.getStatus() == 201){
             logger.info("Policy created");
         }else {
@@ -81,12 +112,21 @@ public class RoleServiceImpl implements IRoleService {
     }
 
     public Page<KcRoleDto> getRoles(int pageNumber, int pageSize) {
+        return findRoles(null, pageNumber, pageSize);
+    }
 
+    public Page<KcRoleDto> searchRoles(String search, int pageNumber, int pageSize) {
+        return findRoles(search == null || search.isBlank() ? null : search.trim(), pageNumber, pageSize);
+    }
+
+    private Page<KcRoleDto> findRoles(String search, int pageNumber, int pageSize) {
         RolesResource roleResource = keycloakAdmin.realm(realm).roles();
         int firstResult = pageNumber * pageSize;
-        //roleResource.list();
-        List<RoleRepresentation> roleRepresentation = roleResource.list(firstResult,pageSize);
-        Pageable pagedRequest = PageRequest.of(pageNumber,pageSize);
+        // Filtrage par nom fait par Keycloak
+        List<RoleRepresentation> roleRepresentation = search == null
+                ? roleResource.list(firstResult, pageSize)
+                : roleResource.list(search, firstResult, pageSize, true);
+        Pageable pagedRequest = PageRequest.of(pageNumber, pageSize);
         List<KcRoleDto> roles = roleRepresentation.stream()
 //                .filter(item->
 //                        //item.getName().startsWith("app_");
@@ -99,10 +139,28 @@ public class RoleServiceImpl implements IRoleService {
             kcRoleDto.setDescription(role.getDescription());
             return kcRoleDto;
         }).toList() ;
-        long totalRoles = roleResource.list().size();
+        // Une première page incomplète donne directement le total
+        long totalRoles = firstResult == 0 && roles.size() < pageSize
+                ? roles.size()
+                : countRoles(roleResource, search);
         return new PageImpl<>(roles, pagedRequest, totalRoles) ;
     }
 
+    /**
+     * Keycloak has no role count endpoint: the count comes from a brief listing and is kept
+     * for keycloak.roles.count-ttl, or until a role is created.
+     */
+    private long countRoles(RolesResource roleResource, String search) {
+        String key = search == null ? "" : search;
+        Long cached = roleCounts.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long count = (search == null ? roleResource.list(true) : roleResource.list(search, true)).size();
+        roleCounts.put(key, count, roleCounts.now().plus(roleCountTtl));
+        return count;
+    }
+
 //    private boolean isKeycloakImplicitRole(String roleName) {
 //        List<String> implicitRolePatterns = Arrays.asList(
 //                "default-roles",
@@ -115,61 +173,182 @@ public class RoleServiceImpl implements IRoleService {
 //    }
 
     public List<AppPermission> getAllPermissions () {
-        AuthorizationResource authorization = keycloakAdmin.realm(realm).clients().get(getClientUUID()).authorization();
+        return getPermissionCatalog().permissions();
+    }
+
+    public PermissionCatalog.Snapshot getPermissionCatalog() {
+        return permissionCatalog.get(permissionCatalogMaxAge);
+    }
+
+    List<AppPermission> loadAllPermissions() {
+        return withAuthorization(this::loadAllPermissions);
+    }
+
+    private List<AppPermission> loadAllPermissions(AuthorizationResource authorization) {
+        // Une recherche de permissions par ressource : exécutées en parallèle, dans l'ordre des ressources
+        List<ResourceRepresentation> resources = authorization.resources().resources();
+        List<List<PermissionItem>> permissionsByResource = keycloakFanOut.map(resources, item ->
+                authorization.policies().policies(null, null, null, item.getId(), null, true, null, null, null, null)
+                        .stream()
+                        .map(elt -> {
+                            PermissionItem permissionItem = new PermissionItem();
+                            permissionItem.setName(elt.getName());
+                            permissionItem.setDescription(elt.getDescription());
+                            return permissionItem;
+                        }).toList()
+        );
 
-         return authorization.resources().resources().stream().map(item -> {
+        List<AppPermission> appPermissions = new ArrayList<>(resources.size());
+        for (int i = 0; i < resources.size(); i++) {
             AppPermission ap = new AppPermission();
-            ap.setResourceName(item.getName());
-            ap.setResourceDisplayName(item.getDisplayName());
-            ap.setPermissions(
-                    authorization.policies().policies(null, null, null, item.getId(), null, true, null, null, null, null)
-                    .stream()
-                    .map(elt -> {
-                        PermissionItem permissionItem = new PermissionItem();
-                        permissionItem.setName(elt.getName());
-                        permissionItem.setDescription(elt.getDescription());
-                        return permissionItem;
-                    }).toList()
-            );
-            return ap;
-        }).toList();
+            ap.setResourceName(resources.get(i).getName());
+            ap.setResourceDisplayName(resources.get(i).getDisplayName());
+            ap.setPermissions(permissionsByResource.get(i));
+            appPermissions.add(ap);
+        }
+        return appPermissions;
     }
 
 
     public List<String> getPermissionsByRole (String roleName) {
-        AuthorizationResource authorization = keycloakAdmin.realm(realm).clients().get(getClientUUID()).authorization();
-        RolePolicyRepresentation policy = authorization.policies().role().findByName(roleName);
-        String policyId = policy.getId();
-        return authorization.policies().policy(policyId).dependentPolicies().stream().map(AbstractPolicyRepresentation::getName).collect(Collectors.toList());
+        return withAuthorization(authorization -> {
+            RolePolicyRepresentation policy = authorization.policies().role().findByName(roleName);
+            String policyId = policy.getId();
+            return authorization.policies().policy(policyId).dependentPolicies().stream().map(AbstractPolicyRepresentation::getName).collect(Collectors.toList());
+        });
     }
 
-    public void assignPermissionsToRole(String roleName, AssignPermissionRequestDto assignPermissionRequestDto) {
-        AuthorizationResource authorization = keycloakAdmin.realm(realm).clients().get(getClientUUID()).authorization();
-        String policyName = roleName ;
+    public List<PermissionAssignmentResult> assignPermissionsToRole(String roleName, AssignPermissionRequestDto assignPermissionRequestDto) {
+        List<PermissionAssignmentResult> results = withAuthorization(authorization ->
+                assignPermissionsToRole(authorization, roleName, assignPermissionRequestDto.getPermissions()));
+        if (results.stream().anyMatch(result -> result.getStatus() == PermissionAssignmentResult.Status.ASSIGNED)) {
+            permissionCatalog.invalidate();
+        }
+        return results;
+    }
 
-        assignPermissionRequestDto.getPermissions().forEach(permission -> {
-            ScopePermissionRepresentation scopePermissionRepresentation = authorization.permissions().scope().findByName(permission.getName());
-            PolicyRepresentation policy = authorization.policies().findByName(policyName);
-            String policyId = policy.getId();
+    private List<PermissionAssignmentResult> assignPermissionsToRole(AuthorizationResource authorization, String roleName, List<PermissionItem> permissions) {
+        PolicyRepresentation policy = authorization.policies().findByName(roleName);
+        if (policy == null) {
+            throw new EntityNotFoundException("Policy not found for role " + roleName);
+        }
+        String policyId = policy.getId();
 
-            Set<String> currentPolicies = new HashSet<>();
+        // Un seul listing des permissions par scope et une seule lecture des permissions déjà liées à la policy du rôle
+        Map<String, PolicyRepresentation> scopePermissions = listScopePermissions(authorization).stream()
+                .collect(Collectors.toMap(PolicyRepresentation::getName, Function.identity(), (first, second) -> first));
+        Set<String> alreadyAssigned = authorization.policies().policy(policyId).dependentPolicies().stream()
+                .map(AbstractPolicyRepresentation::getName)
+                .collect(Collectors.toSet());
 
-            authorization.permissions().scope().findById(scopePermissionRepresentation.getId()).associatedPolicies().forEach(item -> {
-                currentPolicies.add(item.getName());
-            });
+        List<String> names = permissions.stream().map(PermissionItem::getName).distinct().toList();
+        List<PolicyRepresentation> toUpdate = names.stream()
+                .filter(name -> scopePermissions.containsKey(name) && !alreadyAssigned.contains(name))
+                .map(scopePermissions::get)
+                .toList();
+        Map<String, PermissionAssignmentResult> updated = keycloakFanOut.map(toUpdate, permission -> addPolicy(authorization, permission, policyId))
+                .stream()
+                .collect(Collectors.toMap(PermissionAssignmentResult::getName, Function.identity()));
 
-            if (!currentPolicies.contains(policyId)) {
-                currentPolicies.add(policyId);
-                scopePermissionRepresentation.setPolicies(currentPolicies);
-                scopePermissionRepresentation.setDecisionStrategy(DecisionStrategy.AFFIRMATIVE);
-                authorization.permissions().scope().findById(scopePermissionRepresentation.getId()).update(scopePermissionRepresentation);
+        return names.stream().map(name -> {
+            if (!scopePermissions.containsKey(name)) {
+                return new PermissionAssignmentResult(name, PermissionAssignmentResult.Status.NOT_FOUND, "Scope permission not found");
             }
+            if (alreadyAssigned.contains(name)) {
+                return new PermissionAssignmentResult(name, PermissionAssignmentResult.Status.ALREADY_ASSIGNED, null);
+            }
+            return updated.get(name);
+        }).toList();
+    }
 
-        });
+    private PermissionAssignmentResult addPolicy(AuthorizationResource authorization, PolicyRepresentation permission, String policyId) {
+        try {
+            ScopePermissionResource permissionResource = authorization.permissions().scope().findById(permission.getId());
+            Set<String> currentPolicies = permissionResource.associatedPolicies().stream()
+                    .map(AbstractPolicyRepresentation::getId)
+                    .collect(Collectors.toCollection(HashSet::new));
+            currentPolicies.add(policyId);
+
+            ScopePermissionRepresentation scopePermissionRepresentation = new ScopePermissionRepresentation();
+            scopePermissionRepresentation.setId(permission.getId());
+            scopePermissionRepresentation.setName(permission.getName());
+            scopePermissionRepresentation.setDescription(permission.getDescription());
+            scopePermissionRepresentation.setLogic(permission.getLogic());
+            scopePermissionRepresentation.setPolicies(currentPolicies);
+            scopePermissionRepresentation.setDecisionStrategy(DecisionStrategy.AFFIRMATIVE);
+            permissionResource.update(scopePermissionRepresentation);
+            return new PermissionAssignmentResult(permission.getName(), PermissionAssignmentResult.Status.ASSIGNED, null);
+        } catch (RuntimeException e) {
+            logger.warn("Unable to assign permission {} : {}", permission.getName(), e.getMessage());
+            return new PermissionAssignmentResult(permission.getName(), PermissionAssignmentResult.Status.FAILED, e.getMessage());
+        }
+    }
+
+    private List<PolicyRepresentation> listScopePermissions(AuthorizationResource authorization) {
+        List<PolicyRepresentation> permissions = new ArrayList<>();
+        int first = 0;
+        List<PolicyRepresentation> page;
+        do {
+            page = authorization.policies().policies(null, null, "scope", null, null, true, null, null, first, PERMISSIONS_PAGE_SIZE);
+            permissions.addAll(page);
+            first += PERMISSIONS_PAGE_SIZE;
+        } while (page.size() == PERMISSIONS_PAGE_SIZE);
+        return permissions;
+    }
 
+    /**
+     * Resolves the client once at startup, so that the first admin call does not pay the lookup.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void resolveClient() {
+        try {
+            authorization();
+        } catch (RuntimeException e) {
+            logger.warn("Unable to resolve client {} : {}", clientId, e.getMessage());
+        }
     }
 
     public String getClientUUID () {
+        ResolvedClient client = resolvedClient;
+        if (client == null) {
+            authorization();
+            client = resolvedClient;
+        }
+        return client != null ? client.uuid() : "";
+    }
+
+    AuthorizationResource authorization() {
+        ResolvedClient client = resolvedClient;
+        if (client != null) {
+            return client.authorization();
+        }
+        String clientUUID = findClientUUID();
+        AuthorizationResource authorization = keycloakAdmin.realm(realm).clients().get(clientUUID).authorization();
+        // Un client introuvable n'est pas mémorisé : il sera recherché à nouveau au prochain appel
+        if (!clientUUID.isEmpty()) {
+            resolvedClient = new ResolvedClient(clientUUID, authorization);
+        }
+        return authorization;
+    }
+
+    /**
+     * Runs the call against the memoized client and, on a 404, resolves the client again and retries
+     * once: the client may have been deleted and re-imported under a new UUID.
+     */
+    private <T> T withAuthorization(Function<AuthorizationResource, T> call) {
+        try {
+            return call.apply(authorization());
+        } catch (NotFoundException e) {
+            if (resolvedClient == null) {
+                throw e;
+            }
+            logger.info("Keycloak returned 404 for client {}, resolving it again", clientId);
+            resolvedClient = null;
+            return call.apply(authorization());
+        }
+    }
+
+    private String findClientUUID() {
         String clientUUID = "";
         List<ClientRepresentation> clients = keycloakAdmin.realm(realm).clients().findByClientId(clientId);
         if(!clients.isEmpty()) {
@@ -179,4 +358,7 @@ public class RoleServiceImpl implements IRoleService {
         //logger.info("Id : {}", clientUUID);
         return clientUUID;
     }
+
+    private record ResolvedClient(String uuid, AuthorizationResource authorization) {
+    }
 }
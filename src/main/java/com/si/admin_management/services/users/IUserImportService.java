@@ -0,0 +1,14 @@
+package com.si.admin_management.services.users;
+
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface IUserImportService {
+    String TEXT_CSV_VALUE = "text/csv";
+    MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+
+    void importUsers(InputStream input, MediaType contentType, OutputStream output) throws IOException;
+}
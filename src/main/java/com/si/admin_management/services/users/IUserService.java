@@ -8,6 +8,7 @@ import org.springframework.data.domain.Page;
 public interface IUserService {
     KcUserDto createUser(KcUserDtoRequest kcUserDtoRequest);
     Page<KcUserDto> getUsers (int pageNumber, int pageSize);
+    Page<KcUserDto> searchUsers(String search, int pageNumber, int pageSize);
     void updateUser(String userId, KcUserDtoRequest kcUserDtoRequest);
     void deleteUser(String userId);
     UserInfos getMe();
@@ -0,0 +1,80 @@
+package com.si.admin_management.services.users;
+
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.RoleResource;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Effective realm roles of many users at once, built from the member list of each realm role
+ * instead of one role-mapping call per user. Composite roles are expanded the way listEffective does;
+ * roles granted through groups are not taken into account. The realm default role is granted to
+ * every user by Keycloak, so it is assumed for each of them and its members are never listed.
+ * Every other role is still read in full: the cost grows with the realm, not with the number of users asked for.
+ */
+final class RealmRoleMemberships {
+
+    private RealmRoleMemberships() {
+    }
+
+    /**
+     * @param userIds users to resolve
+     * @return effective realm role names by user id, only for users holding at least one role
+     */
+    static Map<String, List<String>> effectiveRealmRoles(RealmResource realmResource, Set<String> userIds, int membersPageSize) {
+        List<RoleRepresentation> realmRoles = realmResource.roles().list();
+        RoleRepresentation defaultRole = realmResource.toRepresentation().getDefaultRole();
+        String defaultRoleName = defaultRole == null ? null : defaultRole.getName();
+
+        Map<String, Set<String>> directRoles = new HashMap<>();
+        if (defaultRoleName != null) {
+            userIds.forEach(id -> directRoles.computeIfAbsent(id, key -> new LinkedHashSet<>()).add(defaultRoleName));
+        }
+        for (RoleRepresentation role : realmRoles) {
+            if (role.getName().equals(defaultRoleName)) {
+                continue;
+            }
+            RoleResource roleResource = realmResource.roles().get(role.getName());
+            int first = 0;
+            List<UserRepresentation> members;
+            do {
+                members = roleResource.getUserMembers(first, membersPageSize);
+                members.stream()
+                        .filter(member -> userIds.contains(member.getId()))
+                        .forEach(member -> directRoles.computeIfAbsent(member.getId(), id -> new LinkedHashSet<>()).add(role.getName()));
+                first += membersPageSize;
+            } while (members.size() == membersPageSize);
+        }
+
+        Set<String> compositeRoles = realmRoles.stream()
+                .filter(RoleRepresentation::isComposite)
+                .map(RoleRepresentation::getName)
+                .collect(Collectors.toSet());
+        Map<String, List<String>> compositesByRole = new HashMap<>();
+        Map<String, List<String>> rolesByUser = new HashMap<>();
+        directRoles.forEach((userId, roles) -> {
+            Set<String> effectiveRoles = new LinkedHashSet<>();
+            Deque<String> toVisit = new ArrayDeque<>(roles);
+            while (!toVisit.isEmpty()) {
+                String roleName = toVisit.pop();
+                if (effectiveRoles.add(roleName) && compositeRoles.contains(roleName)) {
+                    toVisit.addAll(compositesByRole.computeIfAbsent(roleName, name ->
+                            realmResource.roles().get(name).getRealmRoleComposites().stream()
+                                    .map(RoleRepresentation::getName)
+                                    .toList()));
+                }
+            }
+            rolesByUser.put(userId, List.copyOf(effectiveRoles));
+        });
+        return rolesByUser;
+    }
+}
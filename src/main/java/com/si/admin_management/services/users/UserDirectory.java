@@ -0,0 +1,202 @@
+package com.si.admin_management.services.users;
+
+import com.si.admin_management.dtos.keycloak.KcUserDto;
+import com.si.admin_management.entities.UserDirectoryEntity;
+import com.si.admin_management.repositories.UserDirectoryRepository;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Local read model of the realm users (keycloak.users.directory.enabled=true). A periodic sync
+ * reconciles it with Keycloak, writing only the rows that changed, and the user service writes
+ * through on create, update and delete. Reads are served locally once the first sync has completed.
+ */
+@Service
+@ConditionalOnProperty(name = "keycloak.users.directory.enabled", havingValue = "true")
+public class UserDirectory {
+    private static final String ROLE_SEPARATOR = ",";
+    private static final Sort ORDER = Sort.by("username");
+    private final Logger logger = LoggerFactory.getLogger(UserDirectory.class);
+    private final Keycloak keycloakAdmin;
+    private final UserDirectoryRepository userDirectoryRepository;
+    private final Clock clock;
+    // Suppressions locales récentes : une synchro dont la liste a été lue avant ne doit pas les réinsérer
+    private final Map<String, Instant> removedUsers = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    @Value("${keycloak.realm}")
+    private String realm;
+    @Value("${keycloak.users.directory.page-size:500}")
+    private int pageSize = 500;
+
+    @Autowired
+    public UserDirectory(Keycloak keycloakAdmin, UserDirectoryRepository userDirectoryRepository) {
+        this(keycloakAdmin, userDirectoryRepository, Clock.systemUTC());
+    }
+
+    UserDirectory(Keycloak keycloakAdmin, UserDirectoryRepository userDirectoryRepository, Clock clock) {
+        this.keycloakAdmin = keycloakAdmin;
+        this.userDirectoryRepository = userDirectoryRepository;
+        this.clock = clock;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public Page<KcUserDto> findAll(int pageNumber, int pageSize) {
+        return userDirectoryRepository.findAll(PageRequest.of(pageNumber, pageSize, ORDER)).map(this::toDto);
+    }
+
+    public Page<KcUserDto> search(String search, int pageNumber, int pageSize) {
+        Pageable pageable = PageRequest.of(pageNumber, pageSize, ORDER);
+        return userDirectoryRepository.search(search, pageable).map(this::toDto);
+    }
+
+    public void save(KcUserDto user) {
+        userDirectoryRepository.save(toEntity(user.getId(), user.getUsername(), user.getFirstName(), user.getLastName(),
+                user.getEmail(), user.isEnabled(), user.getRealmRoles(), clock.instant()));
+    }
+
+    public void update(String userId, String username, String firstName, String lastName, String email) {
+        userDirectoryRepository.findById(userId).ifPresent(user -> {
+            user.setUsername(username);
+            user.setFirstName(firstName);
+            user.setLastName(lastName);
+            user.setEmail(email);
+            user.setSyncedAt(clock.instant());
+            userDirectoryRepository.save(user);
+        });
+    }
+
+    public void remove(String userId) {
+        removedUsers.put(userId, clock.instant());
+        userDirectoryRepository.deleteById(userId);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${keycloak.users.directory.sync-interval-ms:60000}")
+    public void sync() {
+        try {
+            SyncResult result = synchronize();
+            ready = true;
+            logger.info("User directory synchronized : {} users, {} written, {} removed",
+                    result.users(), result.written(), result.removed());
+        } catch (RuntimeException e) {
+            // Les lectures continuent sur la dernière copie synchronisée
+            logger.warn("Unable to synchronize user directory : {}", e.getMessage());
+        }
+    }
+
+    SyncResult synchronize() {
+        Instant syncStart = clock.instant();
+        RealmResource realmResource = keycloakAdmin.realm(realm);
+
+        Map<String, UserRepresentation> remoteUsers = new LinkedHashMap<>();
+        int first = 0;
+        List<UserRepresentation> page;
+        do {
+            page = realmResource.users().list(first, pageSize);
+            page.forEach(user -> remoteUsers.put(user.getId(), user));
+            first += pageSize;
+        } while (page.size() == pageSize);
+        Map<String, List<String>> rolesByUser = RealmRoleMemberships.effectiveRealmRoles(realmResource, remoteUsers.keySet(), pageSize);
+
+        Map<String, UserDirectoryEntity> localUsers = userDirectoryRepository.findAll().stream()
+                .collect(Collectors.toMap(UserDirectoryEntity::getId, Function.identity()));
+
+        List<UserDirectoryEntity> written = new ArrayList<>();
+        remoteUsers.values().forEach(user -> {
+            UserDirectoryEntity remote = toEntity(user.getId(), user.getUsername(), user.getFirstName(), user.getLastName(),
+                    user.getEmail(), Boolean.TRUE.equals(user.isEnabled()), rolesByUser.getOrDefault(user.getId(), List.of()), syncStart);
+            if (removedSince(user.getId(), syncStart)) {
+                return;
+            }
+            UserDirectoryEntity local = localUsers.get(user.getId());
+            // Une écriture locale plus récente que le début de la synchro l'emporte jusqu'à la suivante
+            if (local == null || (local.getSyncedAt().isBefore(syncStart) && !sameContent(local, remote))) {
+                written.add(remote);
+            }
+        });
+        List<String> removed = localUsers.values().stream()
+                .filter(local -> !remoteUsers.containsKey(local.getId()) && local.getSyncedAt().isBefore(syncStart))
+                .map(UserDirectoryEntity::getId)
+                .toList();
+
+        userDirectoryRepository.saveAll(written);
+        userDirectoryRepository.deleteAllByIdInBatch(removed);
+        // Utilisateurs supprimés pendant l'écriture : on retire ce qui vient d'être réinséré
+        List<String> removedDuringWrite = written.stream()
+                .map(UserDirectoryEntity::getId)
+                .filter(id -> removedSince(id, syncStart))
+                .toList();
+        if (!removedDuringWrite.isEmpty()) {
+            userDirectoryRepository.deleteAllByIdInBatch(removedDuringWrite);
+        }
+        // Les suppressions antérieures à cette synchro sont absentes de la liste lue : plus besoin de les retenir
+        removedUsers.values().removeIf(removedAt -> removedAt.isBefore(syncStart));
+        return new SyncResult(remoteUsers.size(), written.size(), removed.size());
+    }
+
+    private boolean removedSince(String userId, Instant syncStart) {
+        Instant removedAt = removedUsers.get(userId);
+        return removedAt != null && !removedAt.isBefore(syncStart);
+    }
+
+    private UserDirectoryEntity toEntity(String id, String username, String firstName, String lastName, String email,
+                                         boolean enabled, List<String> realmRoles, Instant syncedAt) {
+        return UserDirectoryEntity.builder()
+                .id(id)
+                .username(username)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .enabled(enabled)
+                .realmRoles(realmRoles == null ? "" : String.join(ROLE_SEPARATOR, realmRoles))
+                .syncedAt(syncedAt)
+                .build();
+    }
+
+    private KcUserDto toDto(UserDirectoryEntity user) {
+        List<String> realmRoles = user.getRealmRoles() == null || user.getRealmRoles().isEmpty()
+                ? List.of()
+                : Arrays.asList(user.getRealmRoles().split(ROLE_SEPARATOR));
+        return new KcUserDto(user.getId(), user.getUsername(), user.getFirstName(), user.getLastName(),
+                user.getEmail(), user.isEnabled(), realmRoles);
+    }
+
+    private static boolean sameContent(UserDirectoryEntity local, UserDirectoryEntity remote) {
+        return Objects.equals(local.getUsername(), remote.getUsername())
+                && Objects.equals(local.getFirstName(), remote.getFirstName())
+                && Objects.equals(local.getLastName(), remote.getLastName())
+                && Objects.equals(local.getEmail(), remote.getEmail())
+                && local.isEnabled() == remote.isEnabled()
+                && Objects.equals(local.getRealmRoles(), remote.getRealmRoles());
+    }
+
+    record SyncResult(int users, int written, int removed) {
+    }
+}
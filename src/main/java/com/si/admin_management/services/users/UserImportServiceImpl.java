@@ -0,0 +1,322 @@
+package com.si.admin_management.services.users;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.si.admin_management.dtos.keycloak.KcUserDto;
+import com.si.admin_management.dtos.keycloak.KcUserDtoRequest;
+import com.si.admin_management.dtos.keycloak.UserImportResult;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bulk user creation from a JSON array or a CSV file. Rows are read one at a time, at most
+ * keycloak.users.import.concurrency of them are being created in Keycloak at any moment, and
+ * one result per row is written back as NDJSON as soon as it is known, so neither the input
+ * nor the results are ever held in memory as a whole.
+ */
+@Service
+public class UserImportServiceImpl implements IUserImportService {
+    private static final List<String> CSV_COLUMNS = List.of("firstName", "lastName", "email", "password", "role");
+
+    private final Logger logger = LoggerFactory.getLogger(UserImportServiceImpl.class);
+    private final IUserService userService;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor;
+    private final int concurrency;
+
+    public UserImportServiceImpl(IUserService userService, ObjectMapper objectMapper,
+                                 @Value("${keycloak.users.import.concurrency:4}") int concurrency) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("user-import-");
+        threadFactory.setDaemon(true);
+        this.userService = userService;
+        this.objectMapper = objectMapper;
+        this.executor = Executors.newFixedThreadPool(concurrency, threadFactory);
+        this.concurrency = concurrency;
+    }
+
+    @Override
+    public void importUsers(InputStream input, MediaType contentType, OutputStream output) throws IOException {
+        RowReader rows = TEXT_CSV.isCompatibleWith(contentType) ? new CsvRowReader(input) : new JsonRowReader(input);
+        Semaphore permits = new Semaphore(concurrency);
+        BlockingQueue<UserImportResult> results = new LinkedBlockingQueue<>();
+        int row = 0;
+        try {
+            while (rows.hasNext()) {
+                Row userRow = rows.next();
+                int rowNumber = ++row;
+                acquire(permits, 1);
+                // Les résultats sont écrits par le thread de la requête, au fil de l'eau
+                write(results, output);
+                executor.execute(() -> {
+                    try {
+                        results.add(createUser(rowNumber, userRow));
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        } finally {
+            // Attente des créations en cours, même si la lecture de l'entrée a échoué
+            acquire(permits, concurrency);
+            permits.release(concurrency);
+            write(results, output);
+        }
+        logger.info("User import done : {} rows", row);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private UserImportResult createUser(int row, Row input) {
+        if (input.error() != null) {
+            return new UserImportResult(row, input.email(), UserImportResult.Status.INVALID, null, input.error());
+        }
+        KcUserDtoRequest request = input.request();
+        List<String> missing = missingFields(request);
+        if (!missing.isEmpty()) {
+            return new UserImportResult(row, request.getEmail(), UserImportResult.Status.INVALID, null,
+                    "Missing fields : " + String.join(", ", missing));
+        }
+        try {
+            KcUserDto user = userService.createUser(request);
+            if (user == null) {
+                return new UserImportResult(row, request.getEmail(), UserImportResult.Status.FAILED, null,
+                        "User rejected by Keycloak");
+            }
+            return new UserImportResult(row, request.getEmail(), UserImportResult.Status.CREATED, user.getId(), null);
+        } catch (RuntimeException e) {
+            logger.warn("Unable to import user {} : {}", request.getEmail(), e.getMessage());
+            return new UserImportResult(row, request.getEmail(), UserImportResult.Status.FAILED, null, e.getMessage());
+        }
+    }
+
+    private static List<String> missingFields(KcUserDtoRequest request) {
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("firstName", request.getFirstName());
+        values.put("lastName", request.getLastName());
+        values.put("email", request.getEmail());
+        values.put("password", request.getPassword());
+        values.put("role", request.getRole());
+        return values.entrySet().stream()
+                .filter(entry -> entry.getValue() == null || entry.getValue().isBlank())
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private void write(BlockingQueue<UserImportResult> results, OutputStream output) throws IOException {
+        boolean written = false;
+        for (UserImportResult result = results.poll(); result != null; result = results.poll()) {
+            output.write(objectMapper.writeValueAsBytes(result));
+            output.write('\n');
+            written = true;
+        }
+        if (written) {
+            output.flush();
+        }
+    }
+
+    private static void acquire(Semaphore permits, int count) {
+        try {
+            permits.acquire(count);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("User import interrupted", e);
+        }
+    }
+
+    private interface RowReader {
+        boolean hasNext() throws IOException;
+
+        Row next() throws IOException;
+    }
+
+    /**
+     * One input row: either a request, or the reason why it could not be read.
+     */
+    private record Row(KcUserDtoRequest request, String email, String error) {
+        static Row of(KcUserDtoRequest request) {
+            return new Row(request, request.getEmail(), null);
+        }
+
+        static Row invalid(String email, String error) {
+            return new Row(null, email, error);
+        }
+    }
+
+    /**
+     * Reads the elements of a JSON array one by one. An element that is not a valid user object is
+     * reported as an invalid row; only a syntax error in the array itself stops the import.
+     */
+    private class JsonRowReader implements RowReader {
+        private final JsonParser parser;
+        private JsonToken current;
+
+        JsonRowReader(InputStream input) throws IOException {
+            parser = objectMapper.getFactory().createParser(input);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of users");
+            }
+            current = parser.nextToken();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return current != null && current != JsonToken.END_ARRAY;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            // L'élément est lu en entier avant sa conversion : une erreur de conversion n'affecte que sa ligne
+            JsonNode element = parser.readValueAsTree();
+            current = parser.nextToken();
+            String email = element.path("email").isTextual() ? element.get("email").asText() : null;
+            if (!element.isObject()) {
+                return Row.invalid(email, "Expected a JSON object");
+            }
+            try {
+                return Row.of(objectMapper.treeToValue(element, KcUserDtoRequest.class));
+            } catch (JsonProcessingException e) {
+                return Row.invalid(email, "Invalid user : " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads a CSV file whose first line names the columns (firstName, lastName, email, password, role,
+     * in any order). Values are separated by commas and may be quoted as in RFC 4180: a quoted value
+     * can hold commas, line breaks and doubled quotes ("").
+     */
+    private static class CsvRowReader implements RowReader {
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private List<String> record;
+
+        CsvRowReader(InputStream input) throws IOException {
+            reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            // BOM ajouté par les exports Excel
+            reader.mark(1);
+            if (reader.read() != '\uFEFF') {
+                reader.reset();
+            }
+            List<String> names = readRecord();
+            if (names == null) {
+                return;
+            }
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i), i);
+            }
+            if (!columns.keySet().containsAll(CSV_COLUMNS)) {
+                throw new IOException("CSV header must contain " + String.join(",", CSV_COLUMNS));
+            }
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return record != null;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            List<String> values = record;
+            advance();
+            return Row.of(new KcUserDtoRequest(value(values, "firstName"), value(values, "lastName"), value(values, "email"),
+                    value(values, "password"), value(values, "role")));
+        }
+
+        private String value(List<String> values, String column) {
+            int index = columns.get(column);
+            return index < values.size() ? values.get(index) : null;
+        }
+
+        private void advance() throws IOException {
+            // Les lignes vides sont ignorées
+            do {
+                record = readRecord();
+            } while (record != null && record.size() == 1 && record.get(0).isEmpty());
+        }
+
+        // Un enregistrement peut s'étendre sur plusieurs lignes (saut de ligne entre guillemets) ; null en fin de fichier
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+            while (c != -1 && c != '\n') {
+                if (c == ',') {
+                    values.add(quoted ? value.toString() : value.toString().trim());
+                    value.setLength(0);
+                    quoted = false;
+                } else if (c == '"' && !quoted && value.toString().isBlank()) {
+                    value.setLength(0);
+                    readQuoted(value);
+                    quoted = true;
+                } else if (quoted) {
+                    if (!Character.isWhitespace(c)) {
+                        throw new IOException("Unexpected character after a quoted CSV value");
+                    }
+                } else if (c != '\r') {
+                    value.append((char) c);
+                }
+                c = reader.read();
+            }
+            values.add(quoted ? value.toString() : value.toString().trim());
+            return values;
+        }
+
+        // Lit jusqu'au guillemet fermant ; "" représente un guillemet dans la valeur
+        private void readQuoted(StringBuilder value) throws IOException {
+            while (true) {
+                int c = reader.read();
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted CSV value");
+                }
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() != '"') {
+                        reader.reset();
+                        return;
+                    }
+                }
+                value.append((char) c);
+            }
+        }
+    }
+}
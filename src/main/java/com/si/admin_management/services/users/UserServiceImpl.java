@@ -4,15 +4,21 @@ import com.si.admin_management.dtos.keycloak.KcUserDto;
 import com.si.admin_management.dtos.keycloak.KcUserDtoRequest;
 import com.si.admin_management.dtos.keycloak.Permission;
 import com.si.admin_management.dtos.keycloak.UserInfos;
+import com.si.admin_management.utils.BoundedFanOut;
+import com.si.admin_management.utils.ExpiringCache;
+import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.core.Response;
 import lombok.RequiredArgsConstructor;
 import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.RoleScopeResource;
 import org.keycloak.admin.client.resource.UsersResource;
 import org.keycloak.representations.idm.CredentialRepresentation;
 import org.keycloak.representations.idm.RoleRepresentation;
 import org.keycloak.representations.idm.UserRepresentation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -22,17 +28,43 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements IUserService {
+    private static final String ROLE_LOOKUP_PARALLEL = "parallel";
+    private static final int ME_ROLES_CACHE_SIZE = 10000;
+    private static final int REALM_ROLE_CACHE_SIZE = 100;
     private final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
     private final Keycloak keycloakAdmin;
+    private final BoundedFanOut keycloakFanOut;
+    private final ExpiringCache<String, List<String>> meRolesCache = new ExpiringCache<>(ME_ROLES_CACHE_SIZE);
+    private final ExpiringCache<String, RoleRepresentation> realmRoleCache = new ExpiringCache<>(REALM_ROLE_CACHE_SIZE);
     @Value("${keycloak.realm}")
     private String realm;
+    // parallel : un appel par utilisateur de la page, en parallèle / membership : lecture des membres de chaque rôle
+    // du realm, coût proportionnel au nombre d'utilisateurs du realm et non à la taille de la page
+    @Value("${keycloak.users.role-lookup:parallel}")
+    private String roleLookup = ROLE_LOOKUP_PARALLEL;
+    @Value("${keycloak.users.role-members-page-size:500}")
+    private int roleMembersPageSize = 500;
+    @Value("${keycloak.users.me.roles-cache-ttl:0s}")
+    private Duration meRolesCacheTtl = Duration.ZERO;
+    @Value("${keycloak.users.role-cache-ttl:5m}")
+    private Duration realmRoleCacheTtl = Duration.ofMinutes(5);
+    // Présent uniquement si keycloak.users.directory.enabled=true
+    @Autowired(required = false)
+    private UserDirectory userDirectory;
 
     public KcUserDto createUser(KcUserDtoRequest kcUserDtoRequest) {
         UserRepresentation user = new UserRepresentation();
@@ -45,45 +77,95 @@ public class UserServiceImpl implements IUserService {
         user.setEnabled(true);
         user.setRequiredActions(Collections.emptyList());
 
+        // Mot de passe posé à la création : pas d'appel resetPassword séparé
+        CredentialRepresentation credential = new CredentialRepresentation();
+        credential.setTemporary(false);
+        credential.setType(CredentialRepresentation.PASSWORD);
+        credential.setValue(kcUserDtoRequest.getPassword());
+        user.setCredentials(List.of(credential));
+
+        RealmResource realmResource = keycloakAdmin.realm(realm);
+        String userId;
+        try (Response response = realmResource.users().create(user)) {
+            if (response.getStatus() != 201) {
+                return null;
+            }
+            userId = createdId(response);
+        }
+        if (userId == null) {
+            // Pas de header Location (proxy qui le retire) : on retrouve l'utilisateur par son email
+            userId = realmResource.users().search(kcUserDtoRequest.getEmail()).get(0).getId();
+        }
+        addRealmRole(realmResource, userId, kcUserDtoRequest.getRole());
+
+        KcUserDto kcUserDto = new KcUserDto();
+        kcUserDto.setId(userId);
+        kcUserDto.setFirstName(kcUserDtoRequest.getFirstName());
+        kcUserDto.setLastName(kcUserDtoRequest.getLastName());
+        kcUserDto.setEmail(kcUserDtoRequest.getEmail());
+
+        logger.info("User created : {}", kcUserDto);
+
+        if (userDirectory != null) {
+            // Rôles effectifs (rôle par défaut et composites compris), comme ceux écrits par la synchro
+            List<String> realmRoles = realmResource.users().get(userId).roles().realmLevel().listEffective().stream()
+                    .map(RoleRepresentation::getName)
+                    .toList();
+            KcUserDto directoryEntry = new KcUserDto(userId, kcUserDtoRequest.getEmail(), kcUserDtoRequest.getFirstName(),
+                    kcUserDtoRequest.getLastName(), kcUserDtoRequest.getEmail(), true, realmRoles);
+            userDirectory.save(directoryEntry);
+        }
 
+        return kcUserDto;
+    }
 
-        Response response = keycloakAdmin.realm(realm).users().create(user);
-
-        if (response.getStatus() == 201) {
-            String userId = keycloakAdmin.realm(realm).users()
-                    .search(kcUserDtoRequest.getEmail())
-                    .get(0).getId();
-
-            CredentialRepresentation credential = new CredentialRepresentation();
-            credential.setTemporary(false);
-            credential.setType(CredentialRepresentation.PASSWORD);
-            credential.setValue(kcUserDtoRequest.getPassword());
-            keycloakAdmin.realm(realm).users().get(userId).resetPassword(credential);
-
-            RoleRepresentation realmRole = keycloakAdmin.realm(realm).roles().get(kcUserDtoRequest.getRole()).toRepresentation();
-            keycloakAdmin.realm(realm).users().get(userId).roles().realmLevel().add(List.of(realmRole));
-
-            KcUserDto kcUserDto = new KcUserDto();
-            kcUserDto.setId(userId);
-            kcUserDto.setFirstName(kcUserDtoRequest.getFirstName());
-            kcUserDto.setLastName(kcUserDtoRequest.getLastName());
-            kcUserDto.setEmail(kcUserDtoRequest.getEmail());
-
-            logger.info("User created : {}", kcUserDto);
-
-            return kcUserDto;
+    /**
+     * Id of the created user, read from the Location header of the 201 response.
+     */
+    private static String createdId(Response response) {
+        URI location = response.getLocation();
+        if (location == null) {
+            return null;
+        }
+        String path = location.getPath();
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
 
+    private void addRealmRole(RealmResource realmResource, String userId, String roleName) {
+        RoleScopeResource realmRoles = realmResource.users().get(userId).roles().realmLevel();
+        try {
+            realmRoles.add(List.of(realmRole(realmResource, roleName)));
+        } catch (NotFoundException e) {
+            // Rôle supprimé puis recréé depuis sa mise en cache : nouvel id
+            realmRoleCache.invalidate(roleName);
+            realmRoles.add(List.of(realmRole(realmResource, roleName)));
         }
+    }
 
-        return null;
+    private RoleRepresentation realmRole(RealmResource realmResource, String roleName) {
+        RoleRepresentation role = realmRoleCache.get(roleName);
+        if (role == null) {
+            role = realmResource.roles().get(roleName).toRepresentation();
+            realmRoleCache.put(roleName, role, realmRoleCache.now().plus(realmRoleCacheTtl));
+        }
+        return role;
     }
 
 
     public Page<KcUserDto> getUsers (int pageNumber, int pageSize) {
+        if (userDirectory != null && userDirectory.isReady()) {
+            return userDirectory.findAll(pageNumber, pageSize);
+        }
         int firstResult = pageNumber * pageSize;
 
         Pageable pagedRequest = PageRequest.of(pageNumber,pageSize);
-        List<KcUserDto> users = keycloakAdmin.realm(realm).users().list(firstResult,pageSize).stream().map(user -> {
+        RealmResource realmResource = keycloakAdmin.realm(realm);
+        List<UserRepresentation> pageUsers = realmResource.users().list(firstResult,pageSize);
+        Map<String, List<String>> rolesByUser = ROLE_LOOKUP_PARALLEL.equalsIgnoreCase(roleLookup)
+                ? effectiveRealmRolesInParallel(realmResource, pageUsers)
+                : effectiveRealmRolesByMembership(realmResource, pageUsers);
+
+        List<KcUserDto> users = pageUsers.stream().map(user -> {
             KcUserDto kcUserDto = new KcUserDto();
             kcUserDto.setId(user.getId());
             kcUserDto.setUsername(user.getUsername());
@@ -91,17 +173,57 @@ public class UserServiceImpl implements IUserService {
             kcUserDto.setLastName(user.getLastName());
             kcUserDto.setEmail(user.getEmail());
             kcUserDto.setEnabled(user.isEnabled());
-
-            List<RoleRepresentation> userRoles  = keycloakAdmin.realm(realm).users().get(user.getId()).roles().realmLevel().listEffective();
-            List<String> roleNames = userRoles.stream().map(RoleRepresentation::getName).toList();
-
-            kcUserDto.setRealmRoles(roleNames);
+            kcUserDto.setRealmRoles(rolesByUser.getOrDefault(user.getId(), List.of()));
             return kcUserDto;
         }).toList() ;
-        long totalUsers = keycloakAdmin.realm(realm).users().count();
+        long totalUsers = realmResource.users().count();
         return new PageImpl<>(users, pagedRequest, totalUsers) ;
     }
 
+    public Page<KcUserDto> searchUsers(String search, int pageNumber, int pageSize) {
+        if (userDirectory != null && userDirectory.isReady()) {
+            return userDirectory.search(search, pageNumber, pageSize);
+        }
+        RealmResource realmResource = keycloakAdmin.realm(realm);
+        List<UserRepresentation> pageUsers = realmResource.users().search(search, pageNumber * pageSize, pageSize);
+        Map<String, List<String>> rolesByUser = ROLE_LOOKUP_PARALLEL.equalsIgnoreCase(roleLookup)
+                ? effectiveRealmRolesInParallel(realmResource, pageUsers)
+                : effectiveRealmRolesByMembership(realmResource, pageUsers);
+        List<KcUserDto> users = pageUsers.stream()
+                .map(user -> new KcUserDto(user.getId(), user.getUsername(), user.getFirstName(), user.getLastName(),
+                        user.getEmail(), Boolean.TRUE.equals(user.isEnabled()), rolesByUser.getOrDefault(user.getId(), List.of())))
+                .toList();
+        long totalUsers = realmResource.users().count(search);
+        return new PageImpl<>(users, PageRequest.of(pageNumber, pageSize), totalUsers);
+    }
+
+    /**
+     * Un appel listEffective par utilisateur de la page, exécutés en parallèle (keycloak.fan-out.*).
+     */
+    private Map<String, List<String>> effectiveRealmRolesInParallel(RealmResource realmResource, List<UserRepresentation> users) {
+        List<List<String>> roles = keycloakFanOut.map(users, user ->
+                realmResource.users().get(user.getId()).roles().realmLevel().listEffective().stream()
+                        .map(RoleRepresentation::getName)
+                        .toList());
+        Map<String, List<String>> rolesByUser = new HashMap<>();
+        for (int i = 0; i < users.size(); i++) {
+            rolesByUser.put(users.get(i).getId(), roles.get(i));
+        }
+        return rolesByUser;
+    }
+
+    /**
+     * Parcourt les membres de chaque rôle du realm (hors rôle par défaut) et ne garde que les utilisateurs de la page :
+     * peu d'appels, mais chacun lit tous les membres du rôle ; à réserver aux petits realms.
+     */
+    private Map<String, List<String>> effectiveRealmRolesByMembership(RealmResource realmResource, List<UserRepresentation> users) {
+        if (users.isEmpty()) {
+            return Map.of();
+        }
+        Set<String> userIds = users.stream().map(UserRepresentation::getId).collect(Collectors.toSet());
+        return RealmRoleMemberships.effectiveRealmRoles(realmResource, userIds, roleMembersPageSize);
+    }
+
     public void updateUser(String userId, KcUserDtoRequest kcUserDtoRequest) {
         UserRepresentation user = keycloakAdmin.realm(realm).users().get(userId).toRepresentation();
         user.setEmail(kcUserDtoRequest.getEmail());
@@ -109,6 +231,9 @@ public class UserServiceImpl implements IUserService {
         user.setLastName(kcUserDtoRequest.getLastName());
         user.setUsername(kcUserDtoRequest.getEmail());
         keycloakAdmin.realm(realm).users().get(userId).update(user);
+        if (userDirectory != null) {
+            userDirectory.update(userId, user.getUsername(), user.getFirstName(), user.getLastName(), user.getEmail());
+        }
 
     }
 
@@ -122,6 +247,9 @@ public class UserServiceImpl implements IUserService {
         }
         String userId = users.get(0).getId();
         usersResource.get(userId).remove();
+        if (userDirectory != null) {
+            userDirectory.remove(userId);
+        }
     }
 
     public UserInfos getMe() {
@@ -132,8 +260,9 @@ public class UserServiceImpl implements IUserService {
                 .orElse(Collections.emptyList());
 
 
-        List<RoleRepresentation> userRoles  = keycloakAdmin.realm(realm).users().get(jwt.getClaimAsString("sub")).roles().realmLevel().listEffective();
-        List<String> roleNames = userRoles.stream().map(RoleRepresentation::getName).toList();
+        // realm_access.roles porte déjà les rôles effectifs : Keycloak n'est interrogé que si le claim est absent
+        List<String> roleNames = realmRolesFromToken(jwt)
+                .orElseGet(() -> effectiveRealmRoles(jwt.getClaimAsString("sub")));
         Optional<String> roleOptional = roleNames.stream().filter(roleName -> roleName.startsWith("app_")).findFirst();
         String role = roleOptional.orElse("");
 
@@ -148,4 +277,28 @@ public class UserServiceImpl implements IUserService {
         return userInfos;
     }
 
+    private static Optional<List<String>> realmRolesFromToken(Jwt jwt) {
+        return Optional.ofNullable(jwt.getClaimAsMap("realm_access"))
+                .map(realmAccess -> realmAccess.get("roles"))
+                .filter(Collection.class::isInstance)
+                .map(roles -> ((Collection<?>) roles).stream().map(String::valueOf).toList());
+    }
+
+    private List<String> effectiveRealmRoles(String userId) {
+        boolean cached = !meRolesCacheTtl.isZero();
+        if (cached) {
+            List<String> roles = meRolesCache.get(userId);
+            if (roles != null) {
+                return roles;
+            }
+        }
+        List<String> roles = keycloakAdmin.realm(realm).users().get(userId).roles().realmLevel().listEffective().stream()
+                .map(RoleRepresentation::getName)
+                .toList();
+        if (cached) {
+            meRolesCache.put(userId, roles, meRolesCache.now().plus(meRolesCacheTtl));
+        }
+        return roles;
+    }
+
 }
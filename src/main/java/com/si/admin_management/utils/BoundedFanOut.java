@@ -0,0 +1,97 @@
+package com.si.admin_management.utils;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Runs one blocking call per item on a fixed number of threads and returns the results in the
+ * order of the items. The thread count caps how many calls are in flight at once, across all
+ * callers; each call must complete within the timeout, counted from the moment it starts running.
+ * Time spent queued behind other callers' calls is not counted. A call that runs past the timeout,
+ * or whose batch has failed, is interrupted so that its thread goes back to the pool.
+ */
+public class BoundedFanOut {
+    private final ExecutorService executor;
+    private final Duration timeout;
+
+    public BoundedFanOut(String name, int parallelism, Duration timeout) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(name + "-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+        this.timeout = timeout;
+    }
+
+    public <T, R> List<R> map(List<T> items, Function<T, R> call) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        if (items.size() == 1) {
+            return List.of(call.apply(items.get(0)));
+        }
+        List<CompletableFuture<R>> futures = new ArrayList<>(items.size());
+        for (T item : items) {
+            CompletableFuture<R> future = new CompletableFuture<>();
+            Future<?> task = executor.submit(() -> run(future, item, call));
+            // Délai dépassé ou lot abandonné : le thread de l'appel est interrompu au lieu de rester bloqué
+            future.whenComplete((result, error) -> {
+                if (error instanceof TimeoutException || error instanceof CancellationException) {
+                    task.cancel(true);
+                }
+            });
+            futures.add(future);
+        }
+        List<R> results = new ArrayList<>(items.size());
+        try {
+            for (CompletableFuture<R> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException | CancellationException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw unwrap(e);
+        }
+        return results;
+    }
+
+    private <T, R> void run(CompletableFuture<R> future, T item, Function<T, R> call) {
+        if (future.isDone()) {
+            // Annulé pendant l'attente dans la file : un autre appel du lot a échoué
+            return;
+        }
+        // Le délai part du début de l'exécution, pas de la soumission
+        future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        try {
+            future.complete(call.apply(item));
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private RuntimeException unwrap(RuntimeException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof TimeoutException) {
+            return new IllegalStateException("Call did not complete within " + timeout, cause);
+        }
+        if (e instanceof CompletionException && cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return e;
+    }
+}
@@ -0,0 +1,125 @@
+package com.si.admin_management.utils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-memory cache whose entries carry their own expiry instant.
+ * Expired entries are dropped on read; when the cache is full, expired entries
+ * are purged first and then the entry closest to expiry is evicted.
+ */
+public class ExpiringCache<K, V> {
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final Clock clock;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ExpiringCache(int maxSize) {
+        this(maxSize, Clock.systemUTC());
+    }
+
+    public ExpiringCache(int maxSize, Clock clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    public V get(K key) {
+        Entry<V> entry = getEntry(key);
+        return entry == null ? null : entry.value();
+    }
+
+    /**
+     * Returns the live entry for the key, counting a hit or a miss.
+     */
+    public Entry<V> getEntry(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (!entry.expiresAt().isAfter(clock.instant())) {
+            if (entries.remove(key, entry)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry;
+    }
+
+    public void put(K key, V value, Instant expiresAt) {
+        if (value == null || expiresAt == null || !expiresAt.isAfter(clock.instant())) {
+            return;
+        }
+        if (!entries.containsKey(key) && entries.size() >= maxSize) {
+            makeRoom();
+        }
+        entries.put(key, new Entry<>(value, expiresAt));
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public Instant now() {
+        return clock.instant();
+    }
+
+    private void makeRoom() {
+        Instant now = clock.instant();
+        entries.entrySet().removeIf(item -> {
+            boolean expired = !item.getValue().expiresAt().isAfter(now);
+            if (expired) {
+                evictions.increment();
+            }
+            return expired;
+        });
+        while (entries.size() >= maxSize) {
+            var eldest = entries.entrySet().stream()
+                    .min(Comparator.comparing(item -> item.getValue().expiresAt()));
+            if (eldest.isEmpty()) {
+                return;
+            }
+            if (entries.remove(eldest.get().getKey(), eldest.get().getValue())) {
+                evictions.increment();
+            }
+        }
+    }
+
+    public record Entry<V>(V value, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.si.admin_management.utils;
+
+import com.si.admin_management.dtos.CursorPage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Opaque continuation token for keyset pagination: the sort key values of the last row of a page,
+ * encoded in URL-safe Base64. Clients only pass it back; its content is not part of the API.
+ */
+public final class KeysetCursor {
+    // Borne haute de pageSize : au-delà, pageSize + 1 déborde et la requête lirait toute la table
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final char SEPARATOR = '\n';
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(String... keys) {
+        String joined = String.join(String.valueOf(SEPARATOR), keys);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Vide si le curseur n'a pas été produit par encode avec ce nombre de clés
+    public static Optional<String[]> decode(String cursor, int keyCount) {
+        String joined;
+        try {
+            joined = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        String[] keys = joined.split(String.valueOf(SEPARATOR), -1);
+        return keys.length == keyCount ? Optional.of(keys) : Optional.empty();
+    }
+
+    public static boolean isValidPageSize(int pageSize) {
+        return pageSize >= 1 && pageSize <= MAX_PAGE_SIZE;
+    }
+
+    // rows contient pageSize + 1 lignes au plus : la ligne en trop indique qu'une page suivante existe
+    public static <T> CursorPage<T> page(List<T> rows, int pageSize, Function<T, String[]> keys) {
+        boolean hasNext = rows.size() > pageSize;
+        List<T> content = hasNext ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String nextCursor = hasNext ? encode(keys.apply(content.get(pageSize - 1))) : null;
+        return new CursorPage<>(content, nextCursor, hasNext);
+    }
+}
@@ -1,30 +1,58 @@
 package com.si.admin_management.utils;
 
 import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
 
-
-@NoArgsConstructor
+/**
+ * Formats registration numbers as the prefix, a dash and the value left-padded with zeros to a
+ * minimum width (PAT-000042). A value with more digits than the width is written in full
+ * (PAT-1000000), so numbering never stops once the width is exhausted.
+ */
 @Getter
-@Setter
 public class RegistrationNumber {
+    public static final int DEFAULT_WIDTH = 6;
+    // Nombre de chiffres de Long.MAX_VALUE
+    private static final int MAX_WIDTH = 19;
+
+    private final int width;
+
+    public RegistrationNumber() {
+        this(DEFAULT_WIDTH);
+    }
+
+    public RegistrationNumber(int width) {
+        if (width < 1 || width > MAX_WIDTH) {
+            throw new IllegalArgumentException("Registration number width must be between 1 and " + MAX_WIDTH + " : " + width);
+        }
+        this.width = width;
+    }
+
     public String generate(String entityCode , long listCount ) {
-        listCount+=1;
-        var registrationNu = entityCode+"-";
-        if (listCount < 10){
-            registrationNu += "00000"+listCount;
-        }else if (listCount < 100){
-            registrationNu += "0000"+listCount;
-        }else if (listCount < 1000){
-            registrationNu += "000"+listCount;
-        } else if (listCount < 10000){
-            registrationNu += "00"+listCount;
-        }else if (listCount < 100000){
-            registrationNu += "0"+listCount;
-        }else {
-            registrationNu += listCount;
+        return format(entityCode, Math.incrementExact(listCount));
+    }
+
+    public String format(String prefix, long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Registration number must be positive : " + value);
+        }
+        int prefixLength = prefix.length();
+        char[] buffer = new char[prefixLength + 1 + Math.max(width, digits(value))];
+        prefix.getChars(0, prefixLength, buffer, 0);
+        buffer[prefixLength] = '-';
+        // Chiffres et zéros de remplissage écrits de droite à gauche en un seul passage
+        long remaining = value;
+        for (int position = buffer.length - 1; position > prefixLength; position--) {
+            buffer[position] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        return new String(buffer);
+    }
+
+    private static int digits(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
         }
-        return registrationNu;
+        return digits;
     }
 }
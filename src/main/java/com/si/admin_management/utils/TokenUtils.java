@@ -0,0 +1,45 @@
+package com.si.admin_management.utils;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.JWTParser;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+
+public final class TokenUtils {
+    private TokenUtils() {
+    }
+
+    /**
+     * SHA-256 of the raw token, so that caches never keep bearer tokens as keys.
+     */
+    public static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hashed = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hashed);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Reads the exp claim of a JWT without verifying it. Only use it on tokens
+     * obtained from a trusted party (e.g. Keycloak responses).
+     */
+    public static Optional<Instant> expiresAt(String token) {
+        try {
+            JWTClaimsSet claims = JWTParser.parse(token).getJWTClaimsSet();
+            Date expiration = claims.getExpirationTime();
+            return Optional.ofNullable(expiration).map(Date::toInstant);
+        } catch (ParseException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.si.admin_management.web.rest.controllers;
 
+import com.si.admin_management.dtos.CursorPage;
 import com.si.admin_management.dtos.appointments.AppointmentDtoRequest;
 import com.si.admin_management.dtos.appointments.AppointmentDtoResponse;
 import com.si.admin_management.services.appointments.IAppointmentService;
@@ -8,6 +9,7 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -26,8 +28,28 @@ public class AppointmentController {
 
     @GetMapping
     @PreAuthorize("hasAuthority('PERMISSION_appointment:read')")
-    public ResponseEntity<Page<AppointmentDtoResponse>> getAppointments(@RequestParam(defaultValue = "0") int pageNumber, @RequestParam(defaultValue = "10") int pageSize ) {
-        Page<AppointmentDtoResponse> appointments = appointmentService.getAppointments(pageNumber,pageSize);
+    public ResponseEntity<Page<AppointmentDtoResponse>> getAppointments(@RequestParam(defaultValue = "0") int pageNumber, @RequestParam(defaultValue = "10") int pageSize,
+                                                           @RequestParam(defaultValue = "false") boolean approximateTotal) {
+        // approximateTotal : total lu dans le cache des comptages plutôt qu'un COUNT(*) par requête
+        Page<AppointmentDtoResponse> appointments = approximateTotal
+                ? appointmentService.getAppointmentsWithApproximateTotal(pageNumber,pageSize)
+                : appointmentService.getAppointments(pageNumber,pageSize);
+        return new ResponseEntity<>(appointments, HttpStatus.OK);
+    }
+
+    // Page sans total : "last" indique s'il existe une page suivante
+    @GetMapping("/slice")
+    @PreAuthorize("hasAuthority('PERMISSION_appointment:read')")
+    public ResponseEntity<Slice<AppointmentDtoResponse>> getAppointmentsSlice(@RequestParam(defaultValue = "0") int pageNumber, @RequestParam(defaultValue = "10") int pageSize) {
+        Slice<AppointmentDtoResponse> appointments = appointmentService.getAppointmentsSlice(pageNumber,pageSize);
+        return new ResponseEntity<>(appointments, HttpStatus.OK);
+    }
+
+    // Pagination par curseur : passer le nextCursor de la réponse précédente pour lire la page suivante
+    @GetMapping("/scroll")
+    @PreAuthorize("hasAuthority('PERMISSION_appointment:read')")
+    public ResponseEntity<CursorPage<AppointmentDtoResponse>> getAppointmentsAfter(@RequestParam(required = false) String cursor, @RequestParam(defaultValue = "10") int pageSize) {
+        CursorPage<AppointmentDtoResponse> appointments = appointmentService.getAppointmentsAfter(cursor, pageSize);
         return new ResponseEntity<>(appointments, HttpStatus.OK);
     }
 
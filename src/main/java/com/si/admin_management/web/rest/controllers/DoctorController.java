@@ -1,5 +1,6 @@
 package com.si.admin_management.web.rest.controllers;
 
+import com.si.admin_management.dtos.CursorPage;
 import com.si.admin_management.dtos.doctors.DoctorDtoRequest;
 import com.si.admin_management.dtos.doctors.DoctorDtoResponse;
 import com.si.admin_management.services.doctors.IDoctorService;
@@ -8,6 +9,7 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -26,8 +28,28 @@ public class DoctorController {
 
     @GetMapping
     @PreAuthorize("hasAuthority('PERMISSION_staff:read')")
-    public ResponseEntity<Page<DoctorDtoResponse>> getDoctors(@RequestParam(defaultValue = "0") int pageNumber, @RequestParam(defaultValue = "10") int pageSize ) {
-        Page<DoctorDtoResponse> doctors = doctorService.getDoctors(pageNumber,pageSize);
+    public ResponseEntity<Page<DoctorDtoResponse>> getDoctors(@RequestParam(defaultValue = "0") int pageNumber, @RequestParam(defaultValue = "10") int pageSize,
+                                                           @RequestParam(defaultValue = "false") boolean approximateTotal) {
+        // approximateTotal : total lu dans le cache des comptages plutôt qu'un COUNT(*) par requête
+        Page<DoctorDtoResponse> doctors = approximateTotal
+                ? doctorService.getDoctorsWithApproximateTotal(pageNumber,pageSize)
+                : doctorService.getDoctors(pageNumber,pageSize);
+        return new ResponseEntity<>(doctors, HttpStatus.OK);
+    }
+
+    // Page sans total : "last" indique s'il existe une page suivante
+    @GetMapping("/slice")
+    @PreAuthorize("hasAuthority('PERMISSION_staff:read')")
+    public ResponseEntity<Slice<DoctorDtoResponse>> getDoctorsSlice(@RequestParam(defaultValue = "0") int pageNumber, @RequestParam(defaultValue = "10") int pageSize) {
+        Slice<DoctorDtoResponse> doctors = doctorService.getDoctorsSlice(pageNumber,pageSize);
+        return new ResponseEntity<>(doctors, HttpStatus.OK);
+    }
+
+    // Pagination par curseur : passer le nextCursor de la réponse précédente pour lire la page suivante
+    @GetMapping("/scroll")
+    @PreAuthorize("hasAuthority('PERMISSION_staff:read')")
+    public ResponseEntity<CursorPage<DoctorDtoResponse>> getDoctorsAfter(@RequestParam(required = false) String cursor, @RequestParam(defaultValue = "10") int pageSize) {
+        CursorPage<DoctorDtoResponse> doctors = doctorService.getDoctorsAfter(cursor, pageSize);
         return new ResponseEntity<>(doctors, HttpStatus.OK);
     }
 
@@ -1,5 +1,6 @@
 package com.si.admin_management.web.rest.controllers;
 
+import com.si.admin_management.dtos.CursorPage;
 import com.si.admin_management.dtos.patients.PatientDtoRequest;
 import com.si.admin_management.dtos.patients.PatientDtoResponse;
 import com.si.admin_management.services.patients.IPatientService;
@@ -8,6 +9,7 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -26,8 +28,28 @@ public class PatientController {
 
     @GetMapping
     @PreAuthorize("hasAuthority('PERMISSION_patient:read')")
-    public ResponseEntity<Page<PatientDtoResponse>> getPatients(@RequestParam(defaultValue = "0") int pageNumber, @RequestParam(defaultValue = "10") int pageSize ) {
-        Page<PatientDtoResponse> patients = patientService.getPatients(pageNumber,pageSize);
+    public ResponseEntity<Page<PatientDtoResponse>> getPatients(@RequestParam(defaultValue = "0") int pageNumber, @RequestParam(defaultValue = "10") int pageSize,
+                                                           @RequestParam(defaultValue = "false") boolean approximateTotal) {
+        // approximateTotal : total lu dans le cache des comptages plutôt qu'un COUNT(*) par requête
+        Page<PatientDtoResponse> patients = approximateTotal
+                ? patientService.getPatientsWithApproximateTotal(pageNumber,pageSize)
+                : patientService.getPatients(pageNumber,pageSize);
+        return new ResponseEntity<>(patients, HttpStatus.OK);
+    }
+
+    // Page sans total : "last" indique s'il existe une page suivante
+    @GetMapping("/slice")
+    @PreAuthorize("hasAuthority('PERMISSION_patient:read')")
+    public ResponseEntity<Slice<PatientDtoResponse>> getPatientsSlice(@RequestParam(defaultValue = "0") int pageNumber, @RequestParam(defaultValue = "10") int pageSize) {
+        Slice<PatientDtoResponse> patients = patientService.getPatientsSlice(pageNumber,pageSize);
+        return new ResponseEntity<>(patients, HttpStatus.OK);
+    }
+
+    // Pagination par curseur : passer le nextCursor de la réponse précédente pour lire la page suivante
+    @GetMapping("/scroll")
+    @PreAuthorize("hasAuthority('PERMISSION_patient:read')")
+    public ResponseEntity<CursorPage<PatientDtoResponse>> getPatientsAfter(@RequestParam(required = false) String cursor, @RequestParam(defaultValue = "10") int pageSize) {
+        CursorPage<PatientDtoResponse> patients = patientService.getPatientsAfter(cursor, pageSize);
         return new ResponseEntity<>(patients, HttpStatus.OK);
     }
 
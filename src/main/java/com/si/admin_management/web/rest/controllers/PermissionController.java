@@ -2,9 +2,12 @@ package com.si.admin_management.web.rest.controllers;
 
 import com.si.admin_management.dtos.keycloak.AppPermission;
 import com.si.admin_management.services.roles.IRoleService;
+import com.si.admin_management.services.roles.PermissionCatalog;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -14,7 +17,7 @@ import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/permissions")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = HttpHeaders.ETAG)
 @RequiredArgsConstructor
 @Getter
 @Setter
@@ -23,9 +26,14 @@ public class PermissionController {
     @GetMapping
     //@PreAuthorize("hasRole('admin')")
     @PreAuthorize("hasAuthority('PERMISSION_permission:read')")
-    public ResponseEntity<List<AppPermission>> getPermissions() {
-        List<AppPermission> permissions = roleService.getAllPermissions();
-        return new ResponseEntity<>(permissions, HttpStatus.OK);
+    public ResponseEntity<List<AppPermission>> getPermissions(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        PermissionCatalog.Snapshot catalog = roleService.getPermissionCatalog();
+        String etag = "\"" + catalog.version() + "\"";
+        // Le catalogue ne change qu'à l'édition des autorisations : le client revalide à chaque appel avec son ETag
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(catalog.permissions());
     }
 
     @GetMapping("/{roleName}")
@@ -34,4 +42,20 @@ public class PermissionController {
         List<String> permissions = roleService.getPermissionsByRole(roleName);
         return new ResponseEntity<>(permissions, HttpStatus.OK);
     }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -3,6 +3,7 @@ package com.si.admin_management.web.rest.controllers;
 import com.si.admin_management.dtos.keycloak.AssignPermissionRequestDto;
 import com.si.admin_management.dtos.keycloak.KcRoleDto;
 import com.si.admin_management.dtos.keycloak.KcRoleDtoRequest;
+import com.si.admin_management.dtos.keycloak.PermissionAssignmentResult;
 import com.si.admin_management.services.roles.IRoleService;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -13,6 +14,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/roles")
 @CrossOrigin(origins = "*")
@@ -30,6 +33,13 @@ public class RoleController {
         return new ResponseEntity<>(roles, HttpStatus.OK);
     }
 
+    @GetMapping("/search")
+    @PreAuthorize("hasAuthority('PERMISSION_app_role:read')")
+    public ResponseEntity<Page<KcRoleDto>> searchRoles(@RequestParam String search, @RequestParam(defaultValue = "0") int pageNumber, @RequestParam(defaultValue = "10") int pageSize) {
+        Page<KcRoleDto> roles = roleService.searchRoles(search, pageNumber, pageSize);
+        return new ResponseEntity<>(roles, HttpStatus.OK);
+    }
+
     @PostMapping
     @PreAuthorize("hasAuthority('PERMISSION_app_role:create')")
     public ResponseEntity<KcRoleDto> createRole(@RequestBody KcRoleDtoRequest kcRoleDtoRequest) {
@@ -39,8 +49,8 @@ public class RoleController {
 
     @PutMapping("/{roleName}/permissions")
     @PreAuthorize("hasAuthority('PERMISSION_permission:assign')")
-    public ResponseEntity<?> assignPermissionsToRole( @PathVariable("roleName") String roleName, @RequestBody AssignPermissionRequestDto assignPermissionRequestDto) {
-        roleService.assignPermissionsToRole(roleName, assignPermissionRequestDto);
-        return new ResponseEntity<>(HttpStatus.OK);
+    public ResponseEntity<List<PermissionAssignmentResult>> assignPermissionsToRole( @PathVariable("roleName") String roleName, @RequestBody AssignPermissionRequestDto assignPermissionRequestDto) {
+        List<PermissionAssignmentResult> results = roleService.assignPermissionsToRole(roleName, assignPermissionRequestDto);
+        return new ResponseEntity<>(results, HttpStatus.OK);
     }
 }
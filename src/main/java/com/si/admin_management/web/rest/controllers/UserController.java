@@ -3,16 +3,23 @@ package com.si.admin_management.web.rest.controllers;
 import com.si.admin_management.dtos.keycloak.KcUserDto;
 import com.si.admin_management.dtos.keycloak.KcUserDtoRequest;
 import com.si.admin_management.dtos.keycloak.UserInfos;
+import com.si.admin_management.services.users.IUserImportService;
 import com.si.admin_management.services.users.IUserService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 @RestController
 @RequestMapping("/api/v1/users")
 @CrossOrigin(origins = "*")
@@ -21,6 +28,7 @@ import org.springframework.web.bind.annotation.*;
 @Setter
 public class UserController {
     private final IUserService userService;
+    private final IUserImportService userImportService;
 
     @GetMapping
     //@PreAuthorize("hasRole('app_admin')")
@@ -33,6 +41,17 @@ public class UserController {
         return new ResponseEntity<>(users, HttpStatus.OK);
     }
 
+    @GetMapping("/search")
+    @PreAuthorize("hasAuthority('PERMISSION_account:read')")
+    public ResponseEntity<Page<KcUserDto>> searchUsers(
+            @RequestParam String search,
+            @RequestParam(defaultValue = "0") int pageNumber,
+            @RequestParam(defaultValue = "10") int pageSize
+    ){
+        Page<KcUserDto> users = userService.searchUsers(search, pageNumber, pageSize);
+        return new ResponseEntity<>(users, HttpStatus.OK);
+    }
+
     @PostMapping
     @PreAuthorize("hasAuthority('PERMISSION_account:create')")
     public ResponseEntity<KcUserDto> createUser(@RequestBody KcUserDtoRequest kcUserDtoRequest) {
@@ -40,6 +59,16 @@ public class UserController {
         return new ResponseEntity<>(kcUserDto, HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, IUserImportService.TEXT_CSV_VALUE})
+    @PreAuthorize("hasAuthority('PERMISSION_account:create')")
+    public void importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body,
+                            HttpServletResponse response) throws IOException {
+        // Un résultat par ligne (NDJSON), envoyé dès que la ligne est traitée
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        userImportService.importUsers(body, MediaType.parseMediaType(contentType), response.getOutputStream());
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasAuthority('PERMISSION_account:update')")
     public ResponseEntity<Boolean> updateUser(@PathVariable("id") String id, @RequestBody KcUserDtoRequest kcUserDtoRequest) {
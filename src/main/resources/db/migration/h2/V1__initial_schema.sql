@@ -0,0 +1,41 @@
+-- Même schéma que db/migration/mysql, pour les bases H2 (profil test et tests JPA)
+
+create table patients (
+    id varchar(255) not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    birth_date date not null,
+    place_of_birth varchar(255) not null,
+    gender enum ('MALE','FEMALE') not null,
+    phone_number varchar(255) not null,
+    address varchar(255),
+    registration_number varchar(255) not null,
+    person_to_notify_name varchar(255),
+    person_to_notify_phone_number varchar(255),
+    primary key (id)
+);
+
+create table doctors (
+    id varchar(255) not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    email varchar(255) not null,
+    telephone varchar(255) not null,
+    specialty varchar(255) not null,
+    registration_number varchar(255) not null,
+    primary key (id)
+);
+
+create table appointments (
+    id varchar(255) not null,
+    appointment_date timestamp(6) not null,
+    reason varchar(255) not null,
+    status enum ('SCHEDULED','COMPLETED','CANCELLED') not null,
+    patient_id varchar(255) not null,
+    doctor_id varchar(255) not null,
+    appointment_num varchar(255) not null,
+    created_date timestamp(6) not null,
+    updated_date timestamp(6),
+    created_by varchar(255) not null,
+    primary key (id)
+);
@@ -0,0 +1,23 @@
+-- Tables ajoutées après la mise en place du schéma initial ; "if not exists" car une base
+-- mise à jour par ddl-auto: update peut déjà les contenir au moment du baseline
+
+create table if not exists registration_sequence (
+    prefix varchar(16) not null,
+    next_value bigint not null,
+    primary key (prefix)
+);
+
+create table if not exists user_directory (
+    id varchar(255) not null,
+    username varchar(255),
+    first_name varchar(255),
+    last_name varchar(255),
+    email varchar(255),
+    enabled boolean not null,
+    realm_roles varchar(1024),
+    synced_at timestamp(6) with time zone not null,
+    primary key (id)
+);
+
+create index if not exists idx_user_directory_username on user_directory (username);
+create index if not exists idx_user_directory_email on user_directory (email);
@@ -0,0 +1,14 @@
+-- Rendez-vous d'un patient
+create index idx_appointments_patient_id on appointments (patient_id);
+-- Planning d'un médecin par date ; sert aussi les recherches sur doctor_id seul
+create index idx_appointments_doctor_date on appointments (doctor_id, appointment_date);
+-- Tri et pagination par curseur des rendez-vous (date puis id)
+create index idx_appointments_date on appointments (appointment_date, id);
+
+-- Contrôle d'unicité à la création d'un patient / d'un médecin
+create index idx_patients_phone_number on patients (phone_number);
+create index idx_doctors_email on doctors (email);
+
+-- Pagination par curseur des patients et des médecins (numéro d'enregistrement puis id)
+create index idx_patients_registration_number on patients (registration_number, id);
+create index idx_doctors_registration_number on doctors (registration_number, id);
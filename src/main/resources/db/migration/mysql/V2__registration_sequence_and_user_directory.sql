@@ -0,0 +1,22 @@
+-- Tables ajoutées après la mise en place du schéma initial ; "if not exists" car une base
+-- mise à jour par ddl-auto: update peut déjà les contenir au moment du baseline
+
+create table if not exists registration_sequence (
+    prefix varchar(16) not null,
+    next_value bigint not null,
+    primary key (prefix)
+) engine=InnoDB;
+
+create table if not exists user_directory (
+    id varchar(255) not null,
+    username varchar(255),
+    first_name varchar(255),
+    last_name varchar(255),
+    email varchar(255),
+    enabled bit not null,
+    realm_roles varchar(1024),
+    synced_at datetime(6) not null,
+    primary key (id),
+    index idx_user_directory_username (username),
+    index idx_user_directory_email (email)
+) engine=InnoDB;
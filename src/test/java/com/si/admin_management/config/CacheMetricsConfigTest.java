@@ -0,0 +1,32 @@
+package com.si.admin_management.config;
+
+import com.si.admin_management.utils.ExpiringCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class CacheMetricsConfigTest {
+
+    @Test
+    void cacheMetrics_shouldExposeJwtCacheCounters() {
+        ExpiringCache<String, Jwt> cache = new ExpiringCache<>(10);
+        CachingJwtDecoder jwtDecoder = new CachingJwtDecoder(mock(JwtDecoder.class), cache);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        new CacheMetricsConfig().cacheMetrics(null, jwtDecoder).bindTo(registry);
+        cache.put("key", mock(Jwt.class), Instant.now().plusSeconds(60));
+        cache.get("key");
+        cache.get("unknown");
+
+        assertThat(registry.get("cache.size").tag("cache", "jwt").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("cache", "jwt").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("cache", "jwt").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.find("cache.size").tag("cache", "rpt").gauge()).isNull();
+    }
+}
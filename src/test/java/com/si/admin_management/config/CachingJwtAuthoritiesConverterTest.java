@@ -0,0 +1,89 @@
+package com.si.admin_management.config;
+
+import com.si.admin_management.utils.ExpiringCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachingJwtAuthoritiesConverterTest {
+    private final Instant now = Instant.parse("2025-01-01T10:00:00Z");
+    private final AtomicInteger conversions = new AtomicInteger();
+    private final Converter<Jwt, Collection<GrantedAuthority>> delegate = jwt -> {
+        conversions.incrementAndGet();
+        return List.of(new SimpleGrantedAuthority("ROLE_" + jwt.getSubject()));
+    };
+    private ExpiringCache<String, Collection<GrantedAuthority>> cache;
+    private CachingJwtAuthoritiesConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ExpiringCache<>(10, Clock.fixed(now, ZoneOffset.UTC));
+        converter = new CachingJwtAuthoritiesConverter(delegate, cache);
+    }
+
+    @Test
+    void convert_shouldComputeOnce_whenSameTokenIsReused() {
+        Jwt jwt = jwt("token", "jti-1", "user", now.plusSeconds(300));
+
+        Collection<GrantedAuthority> first = converter.convert(jwt);
+        Collection<GrantedAuthority> second = converter.convert(jwt);
+
+        assertThat(second).isSameAs(first);
+        assertThat(conversions).hasValue(1);
+        assertThat(cache.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void convert_shouldKeepTokensApart_whenJtiDiffers() {
+        converter.convert(jwt("token-1", "jti-1", "user", now.plusSeconds(300)));
+        Collection<GrantedAuthority> admin = converter.convert(jwt("token-2", "jti-2", "admin", now.plusSeconds(300)));
+
+        assertThat(admin).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_admin");
+        assertThat(conversions).hasValue(2);
+    }
+
+    @Test
+    void convert_shouldKeyByTokenHash_whenJtiIsMissing() {
+        converter.convert(jwt("token-1", null, "user", now.plusSeconds(300)));
+        converter.convert(jwt("token-1", null, "user", now.plusSeconds(300)));
+        converter.convert(jwt("token-2", null, "admin", now.plusSeconds(300)));
+
+        assertThat(conversions).hasValue(2);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void convert_shouldNotCache_whenTokenIsExpired() {
+        Jwt jwt = jwt("token", "jti-1", "user", now.minusSeconds(1));
+
+        converter.convert(jwt);
+        converter.convert(jwt);
+
+        assertThat(conversions).hasValue(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    private Jwt jwt(String tokenValue, String jti, String subject, Instant expiresAt) {
+        Jwt.Builder builder = Jwt.withTokenValue(tokenValue)
+                .header("alg", "none")
+                .subject(subject)
+                .issuedAt(expiresAt.minusSeconds(600))
+                .expiresAt(expiresAt);
+        if (jti != null) {
+            builder.jti(jti);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.si.admin_management.config;
+
+import com.si.admin_management.utils.ExpiringCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingJwtDecoderTest {
+
+    @Mock
+    private JwtDecoder delegate;
+
+    private final Instant now = Instant.parse("2025-01-01T10:00:00Z");
+    private ExpiringCache<String, Jwt> cache;
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ExpiringCache<>(10, Clock.fixed(now, ZoneOffset.UTC));
+        decoder = new CachingJwtDecoder(delegate, cache);
+    }
+
+    @Test
+    void decode_shouldVerifyOnlyOnce_whenSameTokenIsReused() {
+        Jwt jwt = jwt("token", now.plusSeconds(300));
+        when(delegate.decode("token")).thenReturn(jwt);
+
+        assertThat(decoder.decode("token")).isSameAs(jwt);
+        assertThat(decoder.decode("token")).isSameAs(jwt);
+
+        verify(delegate, times(1)).decode("token");
+        assertThat(cache.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void decode_shouldNotCache_whenTokenIsRejected() {
+        when(delegate.decode("forged")).thenThrow(new BadJwtException("Invalid signature"));
+
+        assertThatThrownBy(() -> decoder.decode("forged")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("forged")).isInstanceOf(BadJwtException.class);
+
+        verify(delegate, times(2)).decode("forged");
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void decode_shouldVerifyAgain_whenCachedTokenHasExpired() {
+        when(delegate.decode("token")).thenReturn(jwt("token", now.minusSeconds(1)));
+
+        decoder.decode("token");
+        decoder.decode("token");
+
+        verify(delegate, times(2)).decode("token");
+    }
+
+    private Jwt jwt(String tokenValue, Instant expiresAt) {
+        return Jwt.withTokenValue(tokenValue)
+                .header("alg", "RS256")
+                .subject("user")
+                .issuedAt(expiresAt.minusSeconds(600))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
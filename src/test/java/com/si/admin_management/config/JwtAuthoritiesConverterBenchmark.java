@@ -0,0 +1,91 @@
+package com.si.admin_management.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare la conversion JWT -> autorités sans cache et avec cache, pour un RPT portant de nombreuses permissions.
+ * Lancement : mvn test-compile puis exécuter la méthode main avec le classpath de test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthoritiesConverterBenchmark {
+
+    @Param({"50", "200"})
+    private int permissionCount;
+
+    private Jwt jwt;
+    private JwtAuthenticationConverter uncached;
+    private JwtAuthenticationConverter cached;
+
+    @Setup
+    public void setUp() {
+        jwt = rpt(permissionCount);
+
+        SecurityConfig uncachedConfig = new SecurityConfig();
+        ReflectionTestUtils.setField(uncachedConfig, "authoritiesCacheMaxSize", 0);
+        uncached = uncachedConfig.jwtAuthenticationConverter();
+
+        cached = new SecurityConfig().jwtAuthenticationConverter();
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken uncachedConverter() {
+        return uncached.convert(jwt);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken cachedConverter() {
+        return cached.convert(jwt);
+    }
+
+    private static Jwt rpt(int permissionCount) {
+        List<Map<String, Object>> permissions = new ArrayList<>();
+        for (int i = 0; i < permissionCount; i++) {
+            permissions.add(Map.of("rsname", "resource-" + i, "scopes", List.of("read", "create", "update", "delete")));
+        }
+        Instant now = Instant.now();
+        return Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject("benchmark-user")
+                .jti("benchmark-jti")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(3600))
+                .claim("scope", "openid profile email")
+                .claim("realm_access", Map.of("roles", List.of("app_admin", "offline_access", "uma_authorization")))
+                .claim("authorization", Map.of("permissions", permissions))
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthoritiesConverterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -1,5 +1,7 @@
 package com.si.admin_management.config;
 
+import jakarta.ws.rs.client.Client;
+import org.apache.http.impl.client.CloseableHttpClient;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.keycloak.OAuth2Constants;
@@ -11,6 +13,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -78,4 +81,39 @@ public class KeycloakAdminConfigTest {
             assertThat(resultKeycloak).isSameAs(mockedKeycloakInstance);
         }
     }
+
+    @Test
+    void keycloakAdmin_shouldUseSharedConnectionPool_whenHttpClientIsAvailable() {
+        KeycloakAdminConfig config = new KeycloakAdminConfig();
+        ReflectionTestUtils.setField(config, "serverUrl", "http://keycloak.test:8080");
+        ReflectionTestUtils.setField(config, "realm", "my-app-realm");
+        ReflectionTestUtils.setField(config, "clientId", "my-admin-client");
+        ReflectionTestUtils.setField(config, "clientSecret", "a-very-secret-secret");
+        ReflectionTestUtils.setField(config, "keycloakHttpClient", mock(CloseableHttpClient.class));
+
+        try (MockedStatic<KeycloakBuilder> mockedStaticBuilder = mockStatic(KeycloakBuilder.class)) {
+            mockedStaticBuilder.when(KeycloakBuilder::builder).thenReturn(mockedBuilder);
+            when(mockedBuilder.serverUrl(anyString())).thenReturn(mockedBuilder);
+            when(mockedBuilder.realm(anyString())).thenReturn(mockedBuilder);
+            when(mockedBuilder.clientId(anyString())).thenReturn(mockedBuilder);
+            when(mockedBuilder.clientSecret(anyString())).thenReturn(mockedBuilder);
+            when(mockedBuilder.grantType(anyString())).thenReturn(mockedBuilder);
+            when(mockedBuilder.resteasyClient(any(Client.class))).thenReturn(mockedBuilder);
+            when(mockedBuilder.build()).thenReturn(mockedKeycloakInstance);
+
+            Keycloak resultKeycloak = config.keycloakAdmin();
+
+            verify(mockedBuilder).resteasyClient(any(Client.class));
+            assertThat(resultKeycloak).isSameAs(mockedKeycloakInstance);
+        }
+    }
+
+    @Test
+    void resteasyClient_shouldNotCloseSharedHttpClient_whenClosed() throws Exception {
+        CloseableHttpClient httpClient = mock(CloseableHttpClient.class);
+
+        KeycloakAdminConfig.resteasyClient(httpClient).close();
+
+        verify(httpClient, never()).close();
+    }
 }
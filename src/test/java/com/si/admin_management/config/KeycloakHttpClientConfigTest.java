@@ -0,0 +1,31 @@
+package com.si.admin_management.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeycloakHttpClientConfigTest {
+
+    @Test
+    void keycloakConnectionManager_shouldApplyPoolLimits_andExposeMetrics() {
+        KeycloakHttpClientConfig config = new KeycloakHttpClientConfig();
+        ReflectionTestUtils.setField(config, "maxConnections", 40);
+        ReflectionTestUtils.setField(config, "maxConnectionsPerRoute", 10);
+        ReflectionTestUtils.setField(config, "connectionTtl", Duration.ofMinutes(5));
+
+        PoolingHttpClientConnectionManager connectionManager = config.keycloakConnectionManager();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        config.keycloakConnectionPoolMetrics(connectionManager).bindTo(registry);
+
+        assertThat(connectionManager.getMaxTotal()).isEqualTo(40);
+        assertThat(connectionManager.getDefaultMaxPerRoute()).isEqualTo(10);
+        assertThat(registry.get("httpcomponents.httpclient.pool.total.max").tag("httpclient", "keycloak").gauge().value())
+                .isEqualTo(40);
+        connectionManager.close();
+    }
+}
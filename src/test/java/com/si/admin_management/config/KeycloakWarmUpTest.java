@@ -0,0 +1,87 @@
+package com.si.admin_management.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.authorization.client.AuthzClient;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KeycloakWarmUpTest {
+
+    @Mock
+    private JwtDecoder jwtDecoder;
+
+    @Mock
+    private AuthzClient authzClient;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private Keycloak keycloakAdmin;
+
+    private final StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+    private KeycloakWarmUp warmUp;
+
+    @BeforeEach
+    void setUp() {
+        beanFactory.addBean("jwtDecoder", jwtDecoder);
+        beanFactory.addBean("authzClient", authzClient);
+        beanFactory.addBean("keycloakAdmin", keycloakAdmin);
+        warmUp = new KeycloakWarmUp(
+                beanFactory.getBeanProvider(JwtDecoder.class),
+                beanFactory.getBeanProvider(AuthzClient.class),
+                beanFactory.getBeanProvider(Keycloak.class),
+                beanFactory.getBeanProvider(LocalPolicyDecisionTable.class));
+    }
+
+    @Test
+    void run_shouldFetchJwksAndOpenKeycloakClients() {
+        when(jwtDecoder.decode(KeycloakWarmUp.WARM_UP_TOKEN)).thenThrow(new BadJwtException("No matching key"));
+
+        warmUp.run(null);
+
+        verify(jwtDecoder).decode(KeycloakWarmUp.WARM_UP_TOKEN);
+        verify(authzClient).getServerConfiguration();
+        verify(authzClient).obtainAccessToken();
+        verify(keycloakAdmin.tokenManager()).getAccessTokenString();
+    }
+
+    @Test
+    void run_shouldContinue_whenKeycloakIsUnreachable() {
+        when(authzClient.getServerConfiguration()).thenThrow(new RuntimeException("Connection refused"));
+
+        warmUp.run(null);
+
+        verify(keycloakAdmin.tokenManager()).getAccessTokenString();
+    }
+
+    @Test
+    void run_shouldFailStartup_whenFailOnErrorIsEnabled() {
+        ReflectionTestUtils.setField(warmUp, "failOnError", true);
+        when(authzClient.getServerConfiguration()).thenThrow(new RuntimeException("Connection refused"));
+
+        assertThatThrownBy(() -> warmUp.run(null))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Warm-up Authz client failed");
+    }
+
+    @Test
+    void run_shouldLoadAuthorizationSnapshot_whenLocalModeIsEnabled() {
+        LocalPolicyDecisionTable table = mock(LocalPolicyDecisionTable.class);
+        when(table.getSnapshot()).thenReturn(AuthorizationSnapshot.EMPTY);
+        beanFactory.addBean("localPolicyDecisionTable", table);
+
+        warmUp.run(null);
+
+        verify(table).refresh();
+    }
+}
@@ -0,0 +1,273 @@
+package com.si.admin_management.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.AuthorizationResource;
+import org.keycloak.admin.client.resource.ClientResource;
+import org.keycloak.admin.client.resource.ClientsResource;
+import org.keycloak.admin.client.resource.PoliciesResource;
+import org.keycloak.admin.client.resource.PolicyResource;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.ResourcesResource;
+import org.keycloak.admin.client.resource.RolePoliciesResource;
+import org.keycloak.admin.client.resource.RolePolicyResource;
+import org.keycloak.admin.client.resource.RolesResource;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.authorization.DecisionStrategy;
+import org.keycloak.representations.idm.authorization.Logic;
+import org.keycloak.representations.idm.authorization.PolicyRepresentation;
+import org.keycloak.representations.idm.authorization.ResourceRepresentation;
+import org.keycloak.representations.idm.authorization.ResourceServerRepresentation;
+import org.keycloak.representations.idm.authorization.RolePolicyRepresentation;
+import org.keycloak.representations.idm.authorization.ScopeRepresentation;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Vérifie que le mode local calcule les mêmes autorités PERMISSION_* que le mode RPT. Le snapshot est chargé par
+ * LocalPolicyDecisionTable.load() depuis une API d'administration simulée à partir de l'export du realm
+ * (src/main/docker/realm-config), qui renvoie comme Keycloak les rôles des policies par id. Les permissions du RPT
+ * sont celles que Keycloak accorde à chaque jeu de rôles avec ce modèle, écrites à la main.
+ */
+class LocalPolicyEquivalenceTest {
+    private static final Path REALM_EXPORT = Path.of("src/main/docker/realm-config/realm-export.json");
+    private static final String REALM = "admin-management-system";
+    private static final String CLIENT_ID = "admin-management-client";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final List<String> CRUD = List.of("create", "read", "update", "delete");
+
+    private LocalPolicyDecisionTable decisionTable;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        decisionTable = new LocalPolicyDecisionTable(keycloakFromExport(MAPPER.readTree(REALM_EXPORT.toFile())));
+        ReflectionTestUtils.setField(decisionTable, "realm", REALM);
+        ReflectionTestUtils.setField(decisionTable, "clientId", CLIENT_ID);
+        decisionTable.setSnapshot(decisionTable.load());
+    }
+
+    static Stream<Arguments> rptPermissions() {
+        Map<String, List<String>> admin = new TreeMap<>();
+        for (String resource : List.of("account", "app_role", "patient", "appointment", "billing", "staff")) {
+            admin.put(resource, CRUD);
+        }
+        admin.put("permission", List.of("read", "assign"));
+        admin.put("dashboard", List.of("read"));
+        Map<String, List<String>> doctor = Map.of("account", List.of("read"), "patient", CRUD, "dashboard", List.of("read"));
+        Map<String, List<String>> treasurer = Map.of("billing", List.of("create"), "dashboard", List.of("read"));
+        Map<String, List<String>> doctorAndTreasurer = new TreeMap<>(doctor);
+        doctorAndTreasurer.putAll(treasurer);
+        return Stream.of(
+                Arguments.of(List.of("app_admin"), admin),
+                Arguments.of(List.of("doctor"), doctor),
+                Arguments.of(List.of("nurse"), Map.of("account", List.of("read"), "patient", List.of("read", "update"),
+                        "appointment", List.of("read"), "dashboard", List.of("read"))),
+                Arguments.of(List.of("secretary"), Map.of("dashboard", List.of("read"))),
+                Arguments.of(List.of("treasurer"), treasurer),
+                Arguments.of(List.of("doctor", "treasurer"), doctorAndTreasurer),
+                Arguments.of(List.of("unknown_role"), Map.of()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("rptPermissions")
+    void localMode_shouldGrantSameAuthoritiesAsRptMode(List<String> roles, Map<String, List<String>> grantedByKeycloak) {
+        List<String> realmRoles = new ArrayList<>(roles);
+        realmRoles.addAll(List.of("default-roles-admin-management-system", "offline_access", "uma_authorization"));
+
+        SecurityConfig rptMode = new SecurityConfig();
+        Jwt rpt = jwt(realmRoles, Map.of("permissions", grantedByKeycloak.entrySet().stream()
+                .map(entry -> Map.<String, Object>of("rsname", entry.getKey(), "scopes", entry.getValue()))
+                .toList()));
+
+        SecurityConfig localMode = new SecurityConfig();
+        ReflectionTestUtils.setField(localMode, "localPolicyDecisionTable", decisionTable);
+        Jwt accessToken = jwt(realmRoles, null);
+
+        Set<String> rptAuthorities = authorities(rptMode, rpt);
+        Set<String> localAuthorities = authorities(localMode, accessToken);
+
+        assertThat(localAuthorities).isEqualTo(rptAuthorities);
+        assertThat(localAuthorities.stream().filter(authority -> authority.startsWith("PERMISSION_")).count())
+                .isEqualTo(grantedByKeycloak.values().stream().mapToLong(List::size).sum());
+    }
+
+    @Test
+    void resourcePermissionWithoutResources_shouldOnlyCoverResourcesOfItsType() {
+        Map<String, Set<String>> scopesByResource = Map.of("patient", Set.of("read", "update"), "billing", Set.of("read"));
+        Map<String, String> typeByResource = Map.of("patient", "urn:admin-management:medical");
+
+        assertThat(LocalPolicyDecisionTable.authorities("resource", Set.of(), "urn:admin-management:medical", Set.of(),
+                scopesByResource, typeByResource)).containsExactlyInAnyOrder("patient:read", "patient:update");
+        // Sans ressource ni type, Keycloak n'applique la permission à rien
+        assertThat(LocalPolicyDecisionTable.authorities("resource", Set.of(), null, Set.of(),
+                scopesByResource, typeByResource)).isEmpty();
+    }
+
+    /**
+     * API d'administration simulée : ressources, permissions et policies de rôle du client, avec des ids générés
+     * et des rôles référencés par leur id comme dans les réponses de Keycloak.
+     */
+    private Keycloak keycloakFromExport(JsonNode realmExport) throws IOException {
+        JsonNode settings = findClient(realmExport).get("authorizationSettings");
+
+        Map<String, String> roleIds = new HashMap<>();
+        List<RoleRepresentation> realmRoles = new ArrayList<>();
+        for (JsonNode role : realmExport.get("roles").get("realm")) {
+            RoleRepresentation representation = new RoleRepresentation();
+            representation.setId(role.get("id").asText());
+            representation.setName(role.get("name").asText());
+            realmRoles.add(representation);
+            roleIds.put(representation.getName(), representation.getId());
+        }
+
+        Keycloak keycloak = mock(Keycloak.class);
+        RealmResource realmResource = mock(RealmResource.class);
+        ClientsResource clientsResource = mock(ClientsResource.class);
+        ClientResource clientResource = mock(ClientResource.class);
+        AuthorizationResource authorization = mock(AuthorizationResource.class);
+        ResourcesResource resourcesResource = mock(ResourcesResource.class);
+        PoliciesResource policiesResource = mock(PoliciesResource.class);
+        RolePoliciesResource rolePoliciesResource = mock(RolePoliciesResource.class);
+        RolesResource rolesResource = mock(RolesResource.class);
+        ClientRepresentation client = new ClientRepresentation();
+        client.setId("client-uuid");
+        client.setClientId(CLIENT_ID);
+        ResourceServerRepresentation resourceServer = new ResourceServerRepresentation();
+        resourceServer.setDecisionStrategy(DecisionStrategy.valueOf(settings.get("decisionStrategy").asText()));
+
+        when(keycloak.realm(REALM)).thenReturn(realmResource);
+        when(realmResource.clients()).thenReturn(clientsResource);
+        when(clientsResource.findByClientId(CLIENT_ID)).thenReturn(List.of(client));
+        when(clientsResource.get("client-uuid")).thenReturn(clientResource);
+        when(clientResource.authorization()).thenReturn(authorization);
+        when(authorization.getSettings()).thenReturn(resourceServer);
+        when(authorization.resources()).thenReturn(resourcesResource);
+        when(authorization.policies()).thenReturn(policiesResource);
+        when(policiesResource.role()).thenReturn(rolePoliciesResource);
+        when(realmResource.roles()).thenReturn(rolesResource);
+        when(rolesResource.list()).thenReturn(realmRoles);
+
+        Map<String, ResourceRepresentation> resources = new HashMap<>();
+        for (JsonNode resource : settings.get("resources")) {
+            String name = resource.get("name").asText();
+            ResourceRepresentation representation = new ResourceRepresentation(name);
+            representation.setId("resource-" + name);
+            resources.put(name, representation);
+            Set<ScopeRepresentation> scopes = new HashSet<>();
+            resource.path("scopes").forEach(scope -> scopes.add(new ScopeRepresentation(scope.get("name").asText())));
+            representation.setScopes(scopes);
+            if (resource.hasNonNull("type")) {
+                representation.setType(resource.get("type").asText());
+            }
+        }
+        when(resourcesResource.resources()).thenReturn(List.copyOf(resources.values()));
+
+        Map<String, PolicyRepresentation> rolePolicies = new HashMap<>();
+        for (JsonNode policy : settings.get("policies")) {
+            if ("role".equals(policy.get("type").asText())) {
+                PolicyRepresentation representation = policy(policy);
+                rolePolicies.put(representation.getName(), representation);
+                RolePolicyRepresentation rolePolicy = new RolePolicyRepresentation();
+                rolePolicy.setId(representation.getId());
+                rolePolicy.setName(representation.getName());
+                rolePolicy.setLogic(representation.getLogic());
+                for (Map<String, Object> role : this.<Map<String, Object>>readConfig(policy, "roles")) {
+                    // L'export référence les rôles realm par nom, l'API d'administration par id
+                    rolePolicy.addRole(roleIds.get((String) role.get("id")), Boolean.TRUE.equals(role.get("required")));
+                }
+                RolePolicyResource rolePolicyResource = mock(RolePolicyResource.class);
+                when(rolePolicyResource.toRepresentation()).thenReturn(rolePolicy);
+                when(rolePoliciesResource.findById(representation.getId())).thenReturn(rolePolicyResource);
+            }
+        }
+
+        List<PolicyRepresentation> permissions = new ArrayList<>();
+        for (JsonNode policy : settings.get("policies")) {
+            if ("scope".equals(policy.get("type").asText())) {
+                PolicyRepresentation representation = policy(policy);
+                permissions.add(representation);
+                PolicyResource permissionResource = mock(PolicyResource.class);
+                when(permissionResource.resources()).thenReturn(this.<String>readConfig(policy, "resources").stream()
+                        .map(resources::get).toList());
+                when(permissionResource.scopes()).thenReturn(this.<String>readConfig(policy, "scopes").stream()
+                        .map(ScopeRepresentation::new).toList());
+                when(permissionResource.associatedPolicies()).thenReturn(this.<String>readConfig(policy, "applyPolicies").stream()
+                        .map(rolePolicies::get).toList());
+                when(policiesResource.policy(representation.getId())).thenReturn(permissionResource);
+            }
+        }
+        when(policiesResource.policies(any(), any(), any(), any(), any(), eq(true), any(), any(), eq(0), any()))
+                .thenReturn(permissions);
+        return keycloak;
+    }
+
+    private static PolicyRepresentation policy(JsonNode policy) {
+        PolicyRepresentation representation = new PolicyRepresentation();
+        representation.setId("policy-" + policy.get("name").asText());
+        representation.setName(policy.get("name").asText());
+        representation.setType(policy.get("type").asText());
+        representation.setLogic(Logic.valueOf(policy.get("logic").asText()));
+        representation.setDecisionStrategy(DecisionStrategy.valueOf(policy.get("decisionStrategy").asText()));
+        return representation;
+    }
+
+    private Set<String> authorities(SecurityConfig securityConfig, Jwt jwt) {
+        return securityConfig.jwtAuthenticationConverter().convert(jwt).getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+    }
+
+    private Jwt jwt(List<String> realmRoles, Map<String, Object> authorization) {
+        Instant now = Instant.now();
+        Jwt.Builder builder = Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject("test-subject")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(300))
+                .claim("realm_access", Map.of("roles", realmRoles));
+        if (authorization != null) {
+            builder.claim("authorization", authorization);
+        }
+        return builder.build();
+    }
+
+    private JsonNode findClient(JsonNode realm) {
+        for (JsonNode client : realm.get("clients")) {
+            if (CLIENT_ID.equals(client.get("clientId").asText())) {
+                return client;
+            }
+        }
+        throw new IllegalStateException("Client absent de l'export : " + CLIENT_ID);
+    }
+
+    private <T> List<T> readConfig(JsonNode policy, String key) throws IOException {
+        JsonNode value = policy.path("config").get(key);
+        if (value == null) {
+            return List.of();
+        }
+        return MAPPER.readValue(value.asText(), new TypeReference<>() {
+        });
+    }
+}
@@ -1,5 +1,6 @@
 package com.si.admin_management.config;
 
+import com.si.admin_management.utils.ExpiringCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -61,7 +62,7 @@ class RptTokenExchangeFilterTest {
 
     @BeforeEach
     void setUp(){
-        rptTokenExchangeFilter = new RptTokenExchangeFilter(authzConfig);
+        rptTokenExchangeFilter = new RptTokenExchangeFilter(new RptTokenProvider(authzConfig, new ExpiringCache<>(100)));
 
         assertNotNull(rptTokenExchangeFilter, "Le filtre ne doit pas être null");
         assertNotNull(request, "Le mock 'request' ne doit pas être null");
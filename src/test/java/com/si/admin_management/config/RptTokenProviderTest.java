@@ -0,0 +1,239 @@
+package com.si.admin_management.config;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.PlainJWT;
+import com.si.admin_management.utils.ExpiringCache;
+import com.si.admin_management.utils.TokenUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.keycloak.authorization.client.AuthzClient;
+import org.keycloak.authorization.client.resource.AuthorizationResource;
+import org.keycloak.representations.idm.authorization.AuthorizationResponse;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RptTokenProviderTest {
+
+    @Mock
+    private KcAuthzInitConfig authzConfig;
+
+    @Mock
+    private AuthzClient authzClient;
+
+    @Mock
+    private AuthorizationResource authorizationResource;
+
+    private final Instant now = Instant.parse("2025-01-01T10:00:00Z");
+    private ExpiringCache<String, String> cache;
+    private RptTokenProvider rptTokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ExpiringCache<>(10, Clock.fixed(now, ZoneOffset.UTC));
+        rptTokenProvider = new RptTokenProvider(authzConfig, cache);
+        lenient().when(authzConfig.authzClient()).thenReturn(authzClient);
+        lenient().when(authzClient.authorization(anyString())).thenReturn(authorizationResource);
+    }
+
+    @Test
+    void getRptToken_shouldExchangeOnlyOnce_whenSameAccessTokenIsReused() {
+        String rpt = rpt(now.plusSeconds(300));
+        when(authorizationResource.authorize()).thenReturn(response(rpt));
+
+        assertThat(rptTokenProvider.getRptToken("access-token")).isEqualTo(rpt);
+        assertThat(rptTokenProvider.getRptToken("access-token")).isEqualTo(rpt);
+
+        verify(authorizationResource, times(1)).authorize();
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void getRptToken_shouldExchangeAgain_whenRptIsExpired() {
+        String expired = rpt(now.minusSeconds(1));
+        when(authorizationResource.authorize()).thenReturn(response(expired));
+
+        rptTokenProvider.getRptToken("access-token");
+        rptTokenProvider.getRptToken("access-token");
+
+        verify(authorizationResource, times(2)).authorize();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void getRptToken_shouldNotCache_whenRptHasNoExpiry() {
+        when(authorizationResource.authorize()).thenReturn(response("opaque-rpt"));
+
+        rptTokenProvider.getRptToken("access-token");
+        rptTokenProvider.getRptToken("access-token");
+
+        verify(authorizationResource, times(2)).authorize();
+    }
+
+    @Test
+    void getRptToken_shouldKeepTokensApart_whenAccessTokensDiffer() {
+        String rpt = rpt(now.plusSeconds(300));
+        when(authorizationResource.authorize()).thenReturn(response(rpt));
+
+        rptTokenProvider.getRptToken("access-token-1");
+        rptTokenProvider.getRptToken("access-token-2");
+
+        verify(authorizationResource, times(2)).authorize();
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void getRptToken_shouldShareOneExchange_whenRequestsForSameTokenRunConcurrently() throws Exception {
+        int callers = 10;
+        String rpt = rpt(now.plusSeconds(300));
+        CountDownLatch release = new CountDownLatch(1);
+        when(authorizationResource.authorize()).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return response(rpt);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> rptTokenProvider.getRptToken("access-token")));
+            }
+
+            // Attendre que tous les appelants soient en attente de l'échange en cours
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (rptTokenProvider.getExchanges().getSharedCalls() < callers - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(rpt);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(authorizationResource, times(1)).authorize();
+        assertThat(rptTokenProvider.getExchanges().getExecutions()).isEqualTo(1);
+        assertThat(rptTokenProvider.getExchanges().getSharedCalls()).isEqualTo(callers - 1);
+        assertThat(rptTokenProvider.getExchanges().inFlight()).isZero();
+    }
+
+    @Test
+    void getRptToken_shouldPropagateFailureToAllWaitingCallers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(authorizationResource.authorize()).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            throw new RuntimeException("Keycloak unavailable");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> rptTokenProvider.getRptToken("access-token"));
+            Future<String> second = executor.submit(() -> rptTokenProvider.getRptToken("access-token"));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (rptTokenProvider.getExchanges().getSharedCalls() < 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<String> result : List.of(first, second)) {
+                assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                        .isInstanceOf(ExecutionException.class)
+                        .hasRootCauseMessage("Keycloak unavailable");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(authorizationResource, times(1)).authorize();
+    }
+
+    @Test
+    void getRptToken_shouldServeCachedRptAndRefreshIt_whenCloseToExpiry() {
+        RptTokenProvider refreshingProvider = new RptTokenProvider(authzConfig, cache, Duration.ofSeconds(30), Runnable::run);
+        String oldRpt = rpt(now.plusSeconds(20));
+        String newRpt = rpt(now.plusSeconds(300));
+        cache.put(TokenUtils.hash("access-token"), oldRpt, now.plusSeconds(20));
+        when(authorizationResource.authorize()).thenReturn(response(newRpt));
+
+        assertThat(refreshingProvider.getRptToken("access-token")).isEqualTo(oldRpt);
+        assertThat(refreshingProvider.getRptToken("access-token")).isEqualTo(newRpt);
+
+        verify(authorizationResource, times(1)).authorize();
+        assertThat(refreshingProvider.getRefreshes()).isEqualTo(1);
+    }
+
+    @Test
+    void getRptToken_shouldNotRefresh_whenRptIsOutsideRefreshWindow() {
+        RptTokenProvider refreshingProvider = new RptTokenProvider(authzConfig, cache, Duration.ofSeconds(30), Runnable::run);
+        String rpt = rpt(now.plusSeconds(120));
+        cache.put(TokenUtils.hash("access-token"), rpt, now.plusSeconds(120));
+
+        assertThat(refreshingProvider.getRptToken("access-token")).isEqualTo(rpt);
+
+        verifyNoInteractions(authzConfig);
+    }
+
+    @Test
+    void getRptToken_shouldNotRefresh_whenAccessTokenIsExpired() {
+        RptTokenProvider refreshingProvider = new RptTokenProvider(authzConfig, cache, Duration.ofSeconds(30), Runnable::run);
+        String accessToken = rpt(now.minusSeconds(1));
+        String rpt = rpt(now.plusSeconds(10));
+        cache.put(TokenUtils.hash(accessToken), rpt, now.plusSeconds(10));
+
+        assertThat(refreshingProvider.getRptToken(accessToken)).isEqualTo(rpt);
+
+        verifyNoInteractions(authzConfig);
+    }
+
+    @Test
+    void getRptToken_shouldKeepServingCachedRpt_whenRefreshIsRejected() {
+        RptTokenProvider refreshingProvider = new RptTokenProvider(authzConfig, cache, Duration.ofSeconds(30), command -> {
+            throw new RejectedExecutionException("queue full");
+        });
+        String rpt = rpt(now.plusSeconds(10));
+        cache.put(TokenUtils.hash("access-token"), rpt, now.plusSeconds(10));
+
+        assertThat(refreshingProvider.getRptToken("access-token")).isEqualTo(rpt);
+
+        assertThat(refreshingProvider.getRejectedRefreshes()).isEqualTo(1);
+        verifyNoInteractions(authzConfig);
+    }
+
+    static String rpt(Instant expiresAt) {
+        return new PlainJWT(new JWTClaimsSet.Builder()
+                .subject("user")
+                .expirationTime(Date.from(expiresAt))
+                .build()).serialize();
+    }
+
+    private AuthorizationResponse response(String token) {
+        AuthorizationResponse response = new AuthorizationResponse();
+        response.setToken(token);
+        return response;
+    }
+}
@@ -12,6 +12,7 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.Instant;
 import java.util.Collection;
@@ -128,6 +129,23 @@ class SecurityConfigTest {
         assertThat(authorityStrings).containsExactlyInAnyOrder("SCOPE_read", "ROLE_user");
     }
 
+    @Test
+    void testJwtConverter_shouldShareAuthorityInstances_betweenTokens() {
+        // GIVEN
+        ReflectionTestUtils.setField(securityConfig, "authoritiesCacheMaxSize", 0);
+        Jwt jwt = createJwt("read", Map.of("roles", List.of("user")), null);
+        JwtAuthenticationConverter converter = securityConfig.jwtAuthenticationConverter();
+
+        // WHEN
+        List<GrantedAuthority> first = List.copyOf(converter.convert(jwt).getAuthorities());
+        List<GrantedAuthority> second = List.copyOf(converter.convert(jwt).getAuthorities());
+
+        // THEN
+        assertThat(second).hasSize(2);
+        assertThat(second.get(0)).isSameAs(first.get(0));
+        assertThat(second.get(1)).isSameAs(first.get(1));
+    }
+
     /**
      * Méthode utilitaire qui construit une VRAIE instance de Jwt.
      * C'est la solution la plus robuste pour éviter les problèmes de mock.
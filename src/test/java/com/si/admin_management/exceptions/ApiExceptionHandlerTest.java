@@ -4,6 +4,8 @@ import com.si.admin_management.exception.ApiException;
 import com.si.admin_management.exception.ApiExceptionHandler;
 import com.si.admin_management.exception.EntityExistsException;
 import com.si.admin_management.exception.EntityNotFoundException;
+import com.si.admin_management.exception.InvalidCursorException;
+import com.si.admin_management.exception.InvalidPageSizeException;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.springframework.http.HttpStatus;
@@ -37,4 +39,22 @@ public class ApiExceptionHandlerTest {
         assertEquals("Entity already exists", response.getBody().getMessage());
     }
 
+    @Test
+    void testHandleInvalidCursorException() {
+        InvalidCursorException ex = new InvalidCursorException("Invalid cursor");
+        ResponseEntity<ApiException> response = exceptionHandler.handleInvalidCursorException(ex);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals("Invalid cursor", response.getBody().getMessage());
+    }
+
+    @Test
+    void testHandleInvalidPageSizeException() {
+        InvalidPageSizeException ex = new InvalidPageSizeException("Invalid page size");
+        ResponseEntity<ApiException> response = exceptionHandler.handleInvalidPageSizeException(ex);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals("Invalid page size", response.getBody().getMessage());
+    }
+
 }
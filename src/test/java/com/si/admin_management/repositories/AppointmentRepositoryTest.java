@@ -0,0 +1,158 @@
+package com.si.admin_management.repositories;
+
+import com.si.admin_management.dtos.appointments.AppointmentDtoResponse;
+import com.si.admin_management.entities.AppointmentEntity;
+import com.si.admin_management.entities.AppointmentStatus;
+import com.si.admin_management.entities.DoctorEntity;
+import com.si.admin_management.entities.Gender;
+import com.si.admin_management.entities.PatientEntity;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class AppointmentRepositoryTest {
+    private static final int APPOINTMENTS = 60;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    private final Map<String, String> patientNames = new HashMap<>();
+    private final Map<String, String> doctorNames = new HashMap<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        PatientEntity[] patients = new PatientEntity[3];
+        DoctorEntity[] doctors = new DoctorEntity[3];
+        for (int i = 0; i < 3; i++) {
+            patients[i] = entityManager.persist(patient("Patient" + i, "Nom" + i, i));
+            doctors[i] = entityManager.persist(doctor("Docteur" + i, "Nom" + i, i));
+            patientNames.put(patients[i].getId(), "Patient" + i + " Nom" + i);
+            doctorNames.put(doctors[i].getId(), "Docteur" + i + " Nom" + i);
+        }
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            entityManager.persist(appointment(patients[i % 3], doctors[(i + 1) % 3], i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findPageWithNames_shouldIssueSameNumberOfStatements_whateverThePageSize() {
+        for (int pageSize : new int[]{5, 20, 50}) {
+            statistics.clear();
+
+            Page<AppointmentDtoResponse> page = appointmentRepository.findPageWithNames(PageRequest.of(0, pageSize));
+
+            assertThat(page.getContent()).hasSize(pageSize);
+            assertThat(page.getTotalElements()).isEqualTo(APPOINTMENTS);
+            // Une requête pour la page, une pour le total
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void findPageWithNames_shouldFillPatientAndDoctorNames() {
+        Page<AppointmentDtoResponse> page = appointmentRepository.findPageWithNames(PageRequest.of(0, APPOINTMENTS));
+
+        assertThat(page.getContent()).allSatisfy(appointment -> {
+            assertThat(appointment.getPatientName()).isEqualTo(patientNames.get(appointment.getPatientId()));
+            assertThat(appointment.getDoctorName()).isEqualTo(doctorNames.get(appointment.getDoctorId()));
+            assertThat(appointment.getAppointmentNum()).startsWith("RDV-");
+            assertThat(appointment.getStatus()).isEqualTo(AppointmentStatus.SCHEDULED);
+        });
+    }
+
+    @Test
+    void findKeysetPageAfterWithNames_shouldWalkAllAppointmentsInDateOrder_withoutOverlap() {
+        int pageSize = 7;
+        List<AppointmentDtoResponse> seen = new ArrayList<>();
+        List<AppointmentDtoResponse> page = appointmentRepository.findKeysetFirstPageWithNames(PageRequest.of(0, pageSize));
+        while (!page.isEmpty()) {
+            seen.addAll(page);
+            AppointmentDtoResponse last = page.get(page.size() - 1);
+            statistics.clear();
+            page = appointmentRepository.findKeysetPageAfterWithNames(last.getAppointmentDate(), last.getId(), PageRequest.of(0, pageSize));
+            // Une seule requête par page, sans comptage, quelle que soit la profondeur
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        }
+
+        assertThat(seen).hasSize(APPOINTMENTS);
+        assertThat(seen).extracting(AppointmentDtoResponse::getAppointmentNum).doesNotHaveDuplicates();
+        assertThat(seen).extracting(AppointmentDtoResponse::getAppointmentDate).isSorted();
+        assertThat(seen).allSatisfy(appointment -> assertThat(appointment.getPatientName()).isNotNull());
+    }
+
+    @Test
+    void findMaxAppointmentNum_shouldCompareNumbersByValue_onceTheyAreWiderThanThePadding() {
+        PatientEntity patient = entityManager.persist(patient("Patient", "Large", 9));
+        DoctorEntity doctor = entityManager.persist(doctor("Docteur", "Large", 9));
+        AppointmentEntity widened = appointment(patient, doctor, 0);
+        widened.setAppointmentNum("RDV-1000000");
+        AppointmentEntity padded = appointment(patient, doctor, 1);
+        padded.setAppointmentNum("RDV-999999");
+        entityManager.persist(widened);
+        entityManager.persist(padded);
+        entityManager.flush();
+
+        assertThat(appointmentRepository.findMaxAppointmentNum()).contains("RDV-1000000");
+    }
+
+    private static PatientEntity patient(String firstName, String lastName, int i) {
+        return PatientEntity.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .placeOfBirth("Dakar")
+                .gender(Gender.FEMALE)
+                .phoneNumber("77000000" + i)
+                .registrationNumber(String.format("PAT-%06d", i + 1))
+                .build();
+    }
+
+    private static DoctorEntity doctor(String firstName, String lastName, int i) {
+        return DoctorEntity.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .email("docteur" + i + "@example.com")
+                .telephone("78000000" + i)
+                .specialty("Cardiologie")
+                .registrationNumber(String.format("DOC-%06d", i + 1))
+                .build();
+    }
+
+    private static AppointmentEntity appointment(PatientEntity patient, DoctorEntity doctor, int i) {
+        return AppointmentEntity.builder()
+                .appointmentDate(LocalDateTime.of(2025, 1, 1, 8, 0).plusHours(i))
+                .reason("Consultation")
+                .status(AppointmentStatus.SCHEDULED)
+                .patientId(patient.getId())
+                .doctorId(doctor.getId())
+                .appointmentNum(String.format("RDV-%06d", i + 1))
+                .createdDate(LocalDateTime.now())
+                .createdBy("secretary")
+                .build();
+    }
+}
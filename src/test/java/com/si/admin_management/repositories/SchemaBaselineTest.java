@@ -0,0 +1,74 @@
+package com.si.admin_management.repositories;
+
+import com.si.admin_management.entities.PatientEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Base existante créée par ddl-auto: update avant les migrations (tables patients, doctors, appointments, sans
+ * historique Flyway) : au démarrage elle est baselinée en V1, les migrations suivantes créent les tables manquantes
+ * et Hibernate valide le schéma obtenu (ddl-auto: validate).
+ */
+class SchemaBaselineTest {
+    private static final String URL = "jdbc:h2:mem:schema_baseline;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void existingSchema_shouldBeBaselined_thenMigrated_andPassValidation() throws Exception {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "")) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/h2/V1__initial_schema.sql"));
+            connection.createStatement().execute("insert into patients (id, first_name, last_name, birth_date, place_of_birth," +
+                    " gender, phone_number, registration_number) values ('p1', 'Awa', 'Diop', date '1990-01-01', 'Dakar'," +
+                    " 'FEMALE', '770000001', 'PAT-000001')");
+        }
+
+        // application.yml fournit la configuration Flyway (locations, baseline-on-migrate)
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(JpaWithMigrations.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + URL,
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=validate",
+                        "spring.jpa.show-sql=false")
+                .run()) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+
+            // Flyway écrit aussi une ligne sans version à la création du schéma d'historique : seules les versions comptent
+            List<String> history = jdbcTemplate.queryForList("select \"version\" || ':' || \"type\" from \"flyway_schema_history\"" +
+                    " where \"success\" and \"version\" is not null order by \"installed_rank\"", String.class);
+            assertThat(history).containsExactly("1:BASELINE", "2:SQL", "3:SQL");
+            assertThat(jdbcTemplate.queryForObject("select count(*) from registration_sequence", Long.class)).isZero();
+            assertThat(jdbcTemplate.queryForObject("select count(*) from user_directory", Long.class)).isZero();
+            // Les données existantes sont conservées
+            assertThat(context.getBean(PatientRepository.class).findByPhoneNumber("770000001")).isPresent();
+        }
+    }
+
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({DataSourceAutoConfiguration.class, FlywayAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class})
+    @EntityScan(basePackageClasses = PatientEntity.class)
+    @EnableJpaRepositories(basePackageClasses = PatientRepository.class)
+    static class JpaWithMigrations {
+    }
+}
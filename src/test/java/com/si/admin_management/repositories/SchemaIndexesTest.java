@@ -0,0 +1,149 @@
+package com.si.admin_management.repositories;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Schéma créé par les migrations Flyway (db/migration/h2) puis rempli en masse : chaque recherche fréquente
+ * doit passer par son index et ne lire qu'une petite partie de la table (scanCount d'EXPLAIN ANALYZE).
+ * Sous H2, ANALYZE valide la transaction en cours : les données sont insérées une seule fois, hors transaction de
+ * test, puis supprimées à la fin de la classe.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SchemaIndexesTest {
+    private static final int PATIENTS = 2_000;
+    private static final int DOCTORS = 200;
+    private static final int APPOINTMENTS = 20_000;
+    private static final LocalDateTime FIRST_APPOINTMENT = LocalDateTime.of(2025, 1, 1, 8, 0);
+    private static final Pattern SCAN_COUNT = Pattern.compile("scanCount: (\\d+)");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void setUp() {
+        List<Object[]> patients = new ArrayList<>(PATIENTS);
+        for (int i = 0; i < PATIENTS; i++) {
+            patients.add(new Object[]{"patient-" + i, "Prénom" + i, "Nom" + i, Date.valueOf(LocalDate.of(1960, 1, 1).plusDays(i)),
+                    "Dakar", i % 2 == 0 ? "FEMALE" : "MALE", String.format("77%07d", i), String.format("PAT-%06d", i + 1)});
+        }
+        jdbcTemplate.batchUpdate("insert into patients (id, first_name, last_name, birth_date, place_of_birth, gender," +
+                " phone_number, registration_number) values (?, ?, ?, ?, ?, ?, ?, ?)", patients);
+
+        List<Object[]> doctors = new ArrayList<>(DOCTORS);
+        for (int i = 0; i < DOCTORS; i++) {
+            doctors.add(new Object[]{"doctor-" + i, "Docteur" + i, "Nom" + i, "docteur" + i + "@example.com",
+                    String.format("78%07d", i), "Cardiologie", String.format("DOC-%06d", i + 1)});
+        }
+        jdbcTemplate.batchUpdate("insert into doctors (id, first_name, last_name, email, telephone, specialty," +
+                " registration_number) values (?, ?, ?, ?, ?, ?, ?)", doctors);
+
+        List<Object[]> appointments = new ArrayList<>(APPOINTMENTS);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            appointments.add(new Object[]{String.format("appointment-%06d", i), Timestamp.valueOf(FIRST_APPOINTMENT.plusMinutes(30L * i)),
+                    "Consultation", "SCHEDULED", "patient-" + (i % PATIENTS), "doctor-" + (i % DOCTORS),
+                    String.format("RDV-%06d", i + 1), now, "secretary"});
+        }
+        jdbcTemplate.batchUpdate("insert into appointments (id, appointment_date, reason, status, patient_id, doctor_id," +
+                " appointment_num, created_date, created_by) values (?, ?, ?, ?, ?, ?, ?, ?, ?)", appointments);
+        jdbcTemplate.execute("analyze");
+    }
+
+    @AfterAll
+    void tearDown() {
+        jdbcTemplate.execute("delete from appointments");
+        jdbcTemplate.execute("delete from patients");
+        jdbcTemplate.execute("delete from doctors");
+    }
+
+    @Test
+    void appointmentsOfAPatient_shouldUsePatientIndex() {
+        String plan = explain("select * from appointments where patient_id = 'patient-42'");
+
+        assertThat(plan).containsIgnoringCase("idx_appointments_patient_id");
+        assertThat(scanCount(plan)).isLessThanOrEqualTo(APPOINTMENTS / PATIENTS + 1);
+    }
+
+    @Test
+    void scheduleOfADoctor_shouldUseCompositeIndex_forDoctorAndDateRange() {
+        LocalDateTime from = FIRST_APPOINTMENT.plusDays(100);
+        String plan = explain("select * from appointments where doctor_id = 'doctor-7'" +
+                " and appointment_date >= timestamp '" + Timestamp.valueOf(from) + "'" +
+                " and appointment_date < timestamp '" + Timestamp.valueOf(from.plusDays(30)) + "'");
+
+        assertThat(plan).containsIgnoringCase("idx_appointments_doctor_date");
+        // 30 jours de rendez-vous toutes les 30 minutes, répartis sur 200 médecins : quelques lignes seulement
+        assertThat(scanCount(plan)).isLessThan(APPOINTMENTS / 100);
+    }
+
+    @Test
+    void appointmentsOfADoctor_shouldUseCompositeIndexPrefix() {
+        String plan = explain("select * from appointments where doctor_id = 'doctor-7'");
+
+        assertThat(plan).containsIgnoringCase("idx_appointments_doctor_date");
+        assertThat(scanCount(plan)).isLessThanOrEqualTo(APPOINTMENTS / DOCTORS + 1);
+    }
+
+    @Test
+    void appointmentsInADateRange_shouldUseDateIndex() {
+        LocalDateTime from = FIRST_APPOINTMENT.plusDays(200);
+        String plan = explain("select * from appointments where appointment_date >= timestamp '" + Timestamp.valueOf(from) + "'" +
+                " and appointment_date < timestamp '" + Timestamp.valueOf(from.plusDays(1)) + "'");
+
+        assertThat(plan).containsIgnoringCase("idx_appointments_date");
+        // Une journée de rendez-vous (48 créneaux) sur 20 000
+        assertThat(scanCount(plan)).isLessThan(APPOINTMENTS / 100);
+    }
+
+    @Test
+    void patientByPhoneNumber_shouldUsePhoneNumberIndex() {
+        String plan = explain("select * from patients where phone_number = '770001234'");
+
+        assertThat(plan).containsIgnoringCase("idx_patients_phone_number");
+        assertThat(scanCount(plan)).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void doctorByEmail_shouldUseEmailIndex() {
+        String plan = explain("select * from doctors where email = 'docteur42@example.com'");
+
+        assertThat(plan).containsIgnoringCase("idx_doctors_email");
+        assertThat(scanCount(plan)).isLessThanOrEqualTo(2);
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("explain analyze " + sql, String.class));
+    }
+
+    // Somme des lignes lues sur toutes les tables du plan
+    private static long scanCount(String plan) {
+        Matcher matcher = SCAN_COUNT.matcher(plan);
+        long scanned = 0;
+        while (matcher.find()) {
+            scanned += Long.parseLong(matcher.group(1));
+        }
+        assertThat(scanned).as("scanCount absent du plan : %s", plan).isPositive();
+        return scanned;
+    }
+}
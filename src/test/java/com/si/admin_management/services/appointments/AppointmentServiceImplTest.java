@@ -1,5 +1,6 @@
 package com.si.admin_management.services.appointments;
 
+import com.si.admin_management.dtos.CursorPage;
 import com.si.admin_management.dtos.appointments.AppointmentDtoRequest;
 import com.si.admin_management.dtos.appointments.AppointmentDtoResponse;
 import com.si.admin_management.dtos.doctors.DoctorDtoResponse;
@@ -9,15 +10,21 @@ import com.si.admin_management.entities.DoctorEntity;
 import com.si.admin_management.entities.Gender;
 import com.si.admin_management.entities.PatientEntity;
 import com.si.admin_management.exception.EntityNotFoundException;
+import com.si.admin_management.exception.InvalidCursorException;
+import com.si.admin_management.exception.InvalidPageSizeException;
 import com.si.admin_management.mappers.AppointmentMapper;
 import com.si.admin_management.repositories.AppointmentRepository;
+import com.si.admin_management.services.counts.RowCountCache;
 import com.si.admin_management.services.doctors.DoctorServiceImpl;
 import com.si.admin_management.services.patients.PatientServiceImpl;
-import com.si.admin_management.utils.RegistrationNumber;
+import com.si.admin_management.services.registration.RegistrationNumberAllocator;
+import com.si.admin_management.utils.KeysetCursor;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
@@ -68,7 +75,10 @@ public class AppointmentServiceImplTest {
     private MessageSource messageSource;
 
     @Mock
-    private RegistrationNumber registrationNumber = new RegistrationNumber();
+    private RegistrationNumberAllocator registrationNumberAllocator;
+
+    @Mock
+    private RowCountCache rowCountCache;
 
     @Mock
     private SecurityContext securityContext;
@@ -178,13 +188,9 @@ public class AppointmentServiceImplTest {
         when(messageSource.getMessage(eq("patient.notfound"), any(Object[].class), any(Locale.class)))
                 .thenReturn(expectedErrorMessage);
 
-        long currentCount = 0L;
-        when(appointmentRepository.count()).thenReturn(currentCount);
-
-        long expectedSequence = currentCount +1 ;
         String expectedRegNumber = "RDV-000001";
 
-        when(registrationNumber.generate("RDV", currentCount)).thenReturn(expectedRegNumber);
+        when(registrationNumberAllocator.next(eq("RDV"), any())).thenReturn(expectedRegNumber);
         when(appointmentRepository.save(any(AppointmentEntity.class))).thenReturn(appointmentEntity);
         when(appointmentMapper.toAppointmentDtoResponse(appointmentEntity)).thenReturn(appointmentDtoResponse);
 
@@ -196,7 +202,8 @@ public class AppointmentServiceImplTest {
         verify(patientService).getPatientById("1");
         verify(doctorService).getDoctorById("1");
         verify(appointmentMapper).toAppointmentEntity(appointmentDtoRequest);
-        //verify(registrationNumber).generate("RDV", expectedSequence);
+        verify(appointmentRepository).save(argThat(appointment -> expectedRegNumber.equals(appointment.getAppointmentNum())));
+        verify(appointmentRepository, never()).count();
 
         verify(appointmentMapper).toAppointmentDtoResponse(appointmentEntity);
 
@@ -220,14 +227,10 @@ public class AppointmentServiceImplTest {
     @Test
     void getAppointmentsOK() {
         PageRequest pageable = PageRequest.of(0, 1);
-        Page<AppointmentEntity> pageAppointmentEntity = new PageImpl<>(List.of(appointmentEntity));
+        appointmentDtoResponse.setPatientName("Lucas Bernard");
+        appointmentDtoResponse.setDoctorName("Marie Martin");
 
-        when(appointmentRepository.findAll(pageable)).thenReturn(pageAppointmentEntity);
-        when(appointmentMapper.toAppointmentDtoResponse(appointmentEntity))
-                .thenReturn(appointmentDtoResponse);
-
-        when(patientService.getPatientById("1")).thenReturn(Optional.of(patientDtoResponse));
-        when(doctorService.getDoctorById("1")).thenReturn(Optional.of(doctorDtoResponse));
+        when(appointmentRepository.findPageWithNames(pageable)).thenReturn(new PageImpl<>(List.of(appointmentDtoResponse)));
 
         Page<AppointmentDtoResponse> appointments = appointmentService.getAppointments(0, 1);
 
@@ -238,6 +241,43 @@ public class AppointmentServiceImplTest {
         List<AppointmentDtoResponse> content = appointments.getContent();
         assertEquals("Lucas Bernard", content.get(0).getPatientName());
         assertEquals("Marie Martin", content.get(0).getDoctorName());
+        verifyNoInteractions(patientService, doctorService, appointmentMapper);
+    }
+
+    @Test
+    void getAppointmentsAfter_shouldSeekFromCursorDateAndId() {
+        appointmentDtoResponse.setAppointmentDate(LocalDateTime.of(2025, 3, 10, 9, 30));
+        when(appointmentRepository.findKeysetFirstPageWithNames(PageRequest.of(0, 2)))
+                .thenReturn(List.of(appointmentDtoResponse, new AppointmentDtoResponse()));
+
+        CursorPage<AppointmentDtoResponse> page = appointmentService.getAppointmentsAfter(null, 1);
+        assertTrue(page.isHasNext());
+
+        when(appointmentRepository.findKeysetPageAfterWithNames(LocalDateTime.of(2025, 3, 10, 9, 30), "1", PageRequest.of(0, 2)))
+                .thenReturn(List.of());
+        CursorPage<AppointmentDtoResponse> next = appointmentService.getAppointmentsAfter(page.getNextCursor(), 1);
+        assertTrue(next.getContent().isEmpty());
+        assertFalse(next.isHasNext());
+    }
+
+    @Test
+    void getAppointmentsAfter_shouldRejectCursorWithInvalidDate() {
+        when(messageSource.getMessage(eq("cursor.invalid"), any(), any(Locale.class))).thenReturn("Invalid cursor");
+
+        assertThatThrownBy(() -> appointmentService.getAppointmentsAfter(KeysetCursor.encode("hier", "1"), 10))
+                .isInstanceOf(InvalidCursorException.class);
+        verify(appointmentRepository, never()).findKeysetPageAfterWithNames(any(), any(), any());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, Integer.MAX_VALUE})
+    void getAppointmentsAfter_shouldRejectPageSizeOutOfBounds(int pageSize) {
+        when(messageSource.getMessage(eq("page.size.invalid"), any(), any(Locale.class))).thenReturn("Invalid page size");
+
+        assertThatThrownBy(() -> appointmentService.getAppointmentsAfter(null, pageSize))
+                .isInstanceOf(InvalidPageSizeException.class)
+                .hasMessage("Invalid page size");
+        verifyNoInteractions(appointmentRepository);
     }
 
 //    @Test
@@ -0,0 +1,90 @@
+package com.si.admin_management.services.counts;
+
+import com.si.admin_management.repositories.AppointmentRepository;
+import com.si.admin_management.repositories.DoctorRepository;
+import com.si.admin_management.repositories.PatientRepository;
+import com.si.admin_management.services.counts.RowCountCache.Table;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RowCountCacheTest {
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    private RowCountCache rowCountCache;
+
+    @BeforeEach
+    void setUp() {
+        rowCountCache = new RowCountCache(patientRepository, doctorRepository, appointmentRepository);
+    }
+
+    @Test
+    void get_shouldCountOnce_thenServeCachedValueAdjustedByWrites() {
+        when(appointmentRepository.count()).thenReturn(2_000_000L);
+
+        assertThat(rowCountCache.get(Table.APPOINTMENTS)).isEqualTo(2_000_000L);
+        rowCountCache.adjust(Table.APPOINTMENTS, 1);
+        rowCountCache.adjust(Table.APPOINTMENTS, 1);
+        rowCountCache.adjust(Table.APPOINTMENTS, -1);
+
+        assertThat(rowCountCache.get(Table.APPOINTMENTS)).isEqualTo(2_000_001L);
+        verify(appointmentRepository, times(1)).count();
+    }
+
+    @Test
+    void refresh_shouldRecountEveryTable_andKeepLastValueOnFailure() {
+        when(patientRepository.count()).thenReturn(10L, 12L);
+        when(doctorRepository.count()).thenReturn(3L).thenThrow(new IllegalStateException("connection lost"));
+        when(appointmentRepository.count()).thenReturn(40L, 45L);
+
+        rowCountCache.refresh();
+        rowCountCache.refresh();
+
+        assertThat(rowCountCache.get(Table.PATIENTS)).isEqualTo(12L);
+        assertThat(rowCountCache.get(Table.DOCTORS)).isEqualTo(3L);
+        assertThat(rowCountCache.get(Table.APPOINTMENTS)).isEqualTo(45L);
+    }
+
+    @Test
+    void toPage_shouldUseCachedTotal_whenMorePagesFollow() {
+        when(patientRepository.count()).thenReturn(500L);
+
+        Page<String> page = rowCountCache.toPage(new SliceImpl<>(List.of("a", "b"), PageRequest.of(3, 2), true), Table.PATIENTS);
+
+        assertThat(page.getTotalElements()).isEqualTo(500L);
+        assertThat(page.getContent()).containsExactly("a", "b");
+    }
+
+    @Test
+    void toPage_shouldNeverContradictTheSlice() {
+        // Cache en retard sur la table : la page suivante existe quand même
+        when(patientRepository.count()).thenReturn(5L);
+        Page<String> behind = rowCountCache.toPage(new SliceImpl<>(List.of("a", "b"), PageRequest.of(3, 2), true), Table.PATIENTS);
+        assertThat(behind.getTotalElements()).isEqualTo(9L);
+        assertThat(behind.hasNext()).isTrue();
+
+        // Dernière page : le total exact est connu sans comptage
+        Page<String> last = rowCountCache.toPage(new SliceImpl<>(List.of("a"), PageRequest.of(3, 2), false), Table.DOCTORS);
+        assertThat(last.getTotalElements()).isEqualTo(7L);
+        verifyNoInteractions(doctorRepository);
+    }
+}
@@ -4,21 +4,29 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
+import com.si.admin_management.dtos.CursorPage;
 import com.si.admin_management.dtos.doctors.DoctorDtoRequest;
 import com.si.admin_management.dtos.doctors.DoctorDtoResponse;
 import com.si.admin_management.entities.DoctorEntity;
 import com.si.admin_management.exception.EntityExistsException;
 import com.si.admin_management.exception.EntityNotFoundException;
+import com.si.admin_management.exception.InvalidPageSizeException;
 import com.si.admin_management.mappers.DoctorMapper;
 import com.si.admin_management.repositories.DoctorRepository;
+import com.si.admin_management.services.counts.RowCountCache;
+import com.si.admin_management.services.registration.RegistrationNumberAllocator;
+import com.si.admin_management.utils.KeysetCursor;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.context.MessageSource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
@@ -37,18 +45,25 @@ public class DoctorServiceImplTest {
     private DoctorMapper doctorMapper;
     @Mock
     private MessageSource messageSource;
+    @Mock
+    private RegistrationNumberAllocator registrationNumberAllocator;
+    @Mock
+    private RowCountCache rowCountCache;
 
 
     @Test
     void saveDoctorOK() {
         when(doctorRepository.findByEmail(anyString())).thenReturn(Optional.empty());
         when(doctorMapper.toDoctorEntity(any())).thenReturn(getDoctorEntity());
+        when(registrationNumberAllocator.next(eq("DOC"), any())).thenReturn("DOC-000001");
         when(doctorRepository.save(any())).thenReturn(getDoctorEntity());
         when(doctorMapper.toDoctorDtoResponse(any())).thenReturn(getDoctorDtoResponse());
 
         Optional<DoctorDtoResponse> savedDoctor = doctorService.saveDoctor(getDoctorDtoRequest());
         assertTrue(savedDoctor.isPresent());
         assertEquals("1", savedDoctor.get().getId());
+        verify(doctorRepository).save(argThat(doctor -> "DOC-000001".equals(doctor.getRegistrationNumber())));
+        verify(doctorRepository, never()).count();
     }
 
     @Test
@@ -74,13 +89,33 @@ public class DoctorServiceImplTest {
     @Test
     void getDoctorsOK() {
         PageRequest pageable = PageRequest.of(0, 1);
-        Page<DoctorEntity> pageDoctorEntity = new PageImpl<>(List.of(getDoctorEntity()));
-        when(doctorRepository.findAll(pageable)).thenReturn(pageDoctorEntity);
-        when(doctorMapper.toDoctorDtoResponse(any())).thenReturn(getDoctorDtoResponse());
+        when(doctorRepository.findPage(pageable)).thenReturn(new PageImpl<>(List.of(getDoctorDtoResponse())));
 
         Page<DoctorDtoResponse> doctors = doctorService.getDoctors(0, 1);
         assertEquals(1, doctors.getContent().size());
         assertEquals(getDoctorDtoResponse().getId(), doctors.getContent().get(0).getId());
+        verify(doctorRepository, never()).findAll(any(Pageable.class));
+        verifyNoInteractions(doctorMapper);
+    }
+
+    @Test
+    void getDoctorsAfterOK() {
+        String cursor = KeysetCursor.encode("DOC-000001", "1");
+        when(doctorRepository.findKeysetPageAfter("DOC-000001", "1", PageRequest.of(0, 11))).thenReturn(List.of(getDoctorDtoResponse()));
+
+        CursorPage<DoctorDtoResponse> doctors = doctorService.getDoctorsAfter(cursor, 10);
+        assertEquals(1, doctors.getContent().size());
+        assertFalse(doctors.isHasNext());
+        verify(doctorRepository, never()).findKeysetFirstPage(any());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, Integer.MAX_VALUE})
+    void getDoctorsAfterKO_pageSizeOutOfBounds(int pageSize) {
+        when(messageSource.getMessage(eq("page.size.invalid"), any(), any(Locale.class))).thenReturn("Invalid page size");
+
+        assertThrows(InvalidPageSizeException.class, () -> doctorService.getDoctorsAfter(null, pageSize));
+        verifyNoInteractions(doctorRepository);
     }
 
     @Test
@@ -0,0 +1,135 @@
+package com.si.admin_management.services.patients;
+
+import com.si.admin_management.dtos.patients.PatientDtoResponse;
+import com.si.admin_management.entities.Gender;
+import com.si.admin_management.entities.PatientEntity;
+import com.si.admin_management.mappers.PatientMapper;
+import com.si.admin_management.repositories.PatientRepository;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Une page de patients lue par entités gérées + PatientMapper (ancien getPatients) puis par projection
+ * dans le DTO (findPage), sur une base H2 en mémoire de 5000 patients. Lancer avec -prof gc pour
+ * comparer aussi les allocations par page.
+ * Lancement : mvn test-compile puis exécuter la méthode main avec le classpath de test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientServiceGetPatientsBenchmark {
+    private static final int PATIENTS = 5000;
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private PatientRepository patientRepository;
+    private PatientMapper patientMapper;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private PageRequest page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpaOnly.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:patients_benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.open-in-view=false")
+                .run();
+        patientRepository = context.getBean(PatientRepository.class);
+        patientMapper = Mappers.getMapper(PatientMapper.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        List<PatientEntity> patients = new ArrayList<>(PATIENTS);
+        for (int i = 0; i < PATIENTS; i++) {
+            patients.add(PatientEntity.builder()
+                    .firstName("Prénom" + i)
+                    .lastName("Nom" + i)
+                    .birthDate(LocalDate.of(1950, 1, 1).plusDays(i))
+                    .placeOfBirth("Dakar")
+                    .gender(i % 2 == 0 ? Gender.FEMALE : Gender.MALE)
+                    .phoneNumber(String.format("77%07d", i))
+                    .address("Rue " + i)
+                    .registrationNumber(String.format("PAT-%06d", i + 1))
+                    .personToNotifyName("Contact " + i)
+                    .personToNotifyPhoneNumber(String.format("78%07d", i))
+                    .build());
+        }
+        patientRepository.saveAll(patients);
+        // Une page au milieu de la table, identique pour les deux lectures
+        page = PageRequest.of(PATIENTS / pageSize / 2, pageSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<PatientDtoResponse> managedEntities() {
+        return readWrite.execute(status -> patientRepository.findAll(page).map(patientMapper::toPatientDtoResponse));
+    }
+
+    @Benchmark
+    public Page<PatientDtoResponse> projection() {
+        return readOnly.execute(status -> patientRepository.findPage(page));
+    }
+
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+            TransactionAutoConfiguration.class})
+    @EntityScan(basePackageClasses = PatientEntity.class)
+    @EnableJpaRepositories(basePackageClasses = PatientRepository.class)
+    static class JpaOnly {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PatientServiceGetPatientsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -1,15 +1,23 @@
 package com.si.admin_management.services.patients;
 
+import com.si.admin_management.dtos.CursorPage;
 import com.si.admin_management.dtos.patients.PatientDtoRequest;
 import com.si.admin_management.dtos.patients.PatientDtoResponse;
 import com.si.admin_management.entities.Gender;
 import com.si.admin_management.entities.PatientEntity;
 import com.si.admin_management.exception.EntityExistsException;
 import com.si.admin_management.exception.EntityNotFoundException;
+import com.si.admin_management.exception.InvalidCursorException;
+import com.si.admin_management.exception.InvalidPageSizeException;
 import com.si.admin_management.mappers.PatientMapper;
 import com.si.admin_management.repositories.PatientRepository;
+import com.si.admin_management.services.counts.RowCountCache;
+import com.si.admin_management.services.registration.RegistrationNumberAllocator;
+import com.si.admin_management.utils.KeysetCursor;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -17,6 +25,9 @@ import org.springframework.context.MessageSource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDate;
@@ -39,17 +50,25 @@ public class PatientServiceImplTest {
     private PatientMapper patientMapper;
     @Mock
     private MessageSource messageSource;
+    @Mock
+    private RegistrationNumberAllocator registrationNumberAllocator;
+    @Mock
+    private RowCountCache rowCountCache;
 
     @Test
     void savePatientOK() {
         when(patientRepository.findByPhoneNumber(anyString())).thenReturn(Optional.empty());
         when(patientMapper.toPatientEntity(any())).thenReturn(getPatientEntity());
+        when(registrationNumberAllocator.next(eq("PAT"), any())).thenReturn("PAT-000001");
         when(patientRepository.save(any())).thenReturn(getPatientEntity());
         when(patientMapper.toPatientDtoResponse(any())).thenReturn(getPatientDtoResponse());
 
         Optional<PatientDtoResponse> savedPatient = patientService.savePatient(getPatientDtoRequest());
         assertTrue(savedPatient.isPresent());
         assertEquals("1", savedPatient.get().getId());
+        verify(patientRepository).save(argThat(patient -> "PAT-000001".equals(patient.getRegistrationNumber())));
+        verify(rowCountCache).adjust(RowCountCache.Table.PATIENTS, 1);
+        verify(patientRepository, never()).count();
     }
 
     @Test
@@ -75,13 +94,81 @@ public class PatientServiceImplTest {
     @Test
     void getPatientsOK() {
         PageRequest pageable = PageRequest.of(0, 1);
-        Page<PatientEntity> pagePatientEntity = new PageImpl<>(List.of(getPatientEntity()));
-        when(patientRepository.findAll(pageable)).thenReturn(pagePatientEntity);
-        when(patientMapper.toPatientDtoResponse(any())).thenReturn(getPatientDtoResponse());
+        when(patientRepository.findPage(pageable)).thenReturn(new PageImpl<>(List.of(getPatientDtoResponse())));
 
         Page<PatientDtoResponse> patients = patientService.getPatients(0, 1);
         assertEquals(1, patients.getContent().size());
         assertEquals(getPatientDtoResponse().getId(), patients.getContent().get(0).getId());
+        verify(patientRepository, never()).findAll(any(Pageable.class));
+        verifyNoInteractions(patientMapper);
+    }
+
+    @Test
+    void getPatientsSliceOK() {
+        PageRequest pageable = PageRequest.of(0, 1);
+        when(patientRepository.findSlice(pageable)).thenReturn(new SliceImpl<>(List.of(getPatientDtoResponse()), pageable, true));
+
+        Slice<PatientDtoResponse> patients = patientService.getPatientsSlice(0, 1);
+        assertEquals(1, patients.getContent().size());
+        assertTrue(patients.hasNext());
+        verify(patientRepository, never()).count();
+    }
+
+    @Test
+    void getPatientsWithApproximateTotalOK() {
+        PageRequest pageable = PageRequest.of(0, 1);
+        Slice<PatientDtoResponse> slice = new SliceImpl<>(List.of(getPatientDtoResponse()), pageable, true);
+        when(patientRepository.findSlice(pageable)).thenReturn(slice);
+        Page<PatientDtoResponse> page = new PageImpl<>(slice.getContent(), pageable, 1200);
+        when(rowCountCache.toPage(slice, RowCountCache.Table.PATIENTS)).thenReturn(page);
+
+        assertSame(page, patientService.getPatientsWithApproximateTotal(0, 1));
+        verify(patientRepository, never()).count();
+    }
+
+    @Test
+    void getPatientsAfterOK() {
+        PatientDtoResponse first = getPatientDtoResponse();
+        PatientDtoResponse second = getPatientDtoResponse();
+        second.setId("2");
+        second.setRegistrationNumber("PAT-000002");
+        when(patientRepository.findKeysetFirstPage(PageRequest.of(0, 2))).thenReturn(List.of(first, second));
+
+        CursorPage<PatientDtoResponse> page = patientService.getPatientsAfter(null, 1);
+        assertEquals(List.of(first), page.getContent());
+        assertTrue(page.isHasNext());
+
+        when(patientRepository.findKeysetPageAfter("PAT-000001", "1", PageRequest.of(0, 2))).thenReturn(List.of(second));
+        CursorPage<PatientDtoResponse> next = patientService.getPatientsAfter(page.getNextCursor(), 1);
+        assertEquals(List.of(second), next.getContent());
+        assertFalse(next.isHasNext());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    void getPatientsAfterKO() {
+        when(messageSource.getMessage(eq("cursor.invalid"), any(), any(Locale.class))).thenReturn("Invalid cursor");
+
+        InvalidCursorException exception = assertThrows(InvalidCursorException.class, () -> patientService.getPatientsAfter("%%%", 10));
+        assertEquals("Invalid cursor", exception.getMessage());
+        verifyNoInteractions(patientRepository);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1, KeysetCursor.MAX_PAGE_SIZE + 1, Integer.MAX_VALUE})
+    void getPatientsAfterKO_pageSizeOutOfBounds(int pageSize) {
+        when(messageSource.getMessage(eq("page.size.invalid"), any(), any(Locale.class))).thenReturn("Invalid page size");
+
+        InvalidPageSizeException exception = assertThrows(InvalidPageSizeException.class, () -> patientService.getPatientsAfter(null, pageSize));
+        assertEquals("Invalid page size", exception.getMessage());
+        verifyNoInteractions(patientRepository);
+    }
+
+    @Test
+    void getPatientsAfterOK_maxPageSize() {
+        when(patientRepository.findKeysetFirstPage(PageRequest.of(0, KeysetCursor.MAX_PAGE_SIZE + 1))).thenReturn(List.of());
+
+        assertTrue(patientService.getPatientsAfter(null, KeysetCursor.MAX_PAGE_SIZE).getContent().isEmpty());
     }
 
     @Test
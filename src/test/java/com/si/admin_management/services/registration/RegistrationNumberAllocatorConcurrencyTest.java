@@ -0,0 +1,197 @@
+package com.si.admin_management.services.registration;
+
+import com.si.admin_management.dtos.appointments.AppointmentDtoRequest;
+import com.si.admin_management.dtos.appointments.AppointmentDtoResponse;
+import com.si.admin_management.dtos.doctors.DoctorDtoRequest;
+import com.si.admin_management.dtos.patients.PatientDtoRequest;
+import com.si.admin_management.dtos.patients.PatientDtoResponse;
+import com.si.admin_management.entities.Gender;
+import com.si.admin_management.mappers.AppointmentMapper;
+import com.si.admin_management.mappers.DoctorMapper;
+import com.si.admin_management.mappers.PatientMapper;
+import com.si.admin_management.repositories.AppointmentRepository;
+import com.si.admin_management.repositories.DoctorRepository;
+import com.si.admin_management.repositories.PatientRepository;
+import com.si.admin_management.repositories.RegistrationSequenceRepository;
+import com.si.admin_management.services.appointments.AppointmentServiceImpl;
+import com.si.admin_management.services.counts.RowCountCache;
+import com.si.admin_management.services.doctors.DoctorServiceImpl;
+import com.si.admin_management.services.patients.PatientServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Deux instances de l'application (deux allocateurs) créent des patients et des rendez-vous en parallèle sur la même
+ * base H2 : réservation des blocs sous verrou PESSIMISTIC_WRITE dans des transactions REQUIRES_NEW, insertions réelles.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RegistrationNumberAllocatorConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int INSERTS_PER_THREAD = 25;
+    private static final int BLOCK_SIZE = 5;
+
+    @Autowired
+    private PatientRepository realPatientRepository;
+    @Autowired
+    private DoctorRepository doctorRepository;
+    @Autowired
+    private AppointmentRepository realAppointmentRepository;
+    @Autowired
+    private RegistrationSequenceRepository registrationSequenceRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private PatientRepository patientRepository;
+    private AppointmentRepository appointmentRepository;
+    private final List<PatientServiceImpl> patientServices = new ArrayList<>();
+    private final List<AppointmentServiceImpl> appointmentServices = new ArrayList<>();
+    private String patientId;
+    private String doctorId;
+
+    @BeforeEach
+    void setUp() {
+        // Les vrais repositories, observés pour vérifier qu'aucune insertion ne compte la table
+        patientRepository = mock(PatientRepository.class, delegatesTo(realPatientRepository));
+        appointmentRepository = mock(AppointmentRepository.class, delegatesTo(realAppointmentRepository));
+        RowCountCache rowCountCache = new RowCountCache(patientRepository, doctorRepository, appointmentRepository);
+        StaticMessageSource messageSource = new StaticMessageSource();
+
+        for (int instance = 0; instance < 2; instance++) {
+            RegistrationNumberAllocator allocator = new RegistrationNumberAllocator(registrationSequenceRepository, transactionManager, 6);
+            ReflectionTestUtils.setField(allocator, "blockSize", BLOCK_SIZE);
+            PatientServiceImpl patientService = new PatientServiceImpl(patientRepository, Mappers.getMapper(PatientMapper.class),
+                    messageSource, allocator, rowCountCache);
+            DoctorServiceImpl doctorService = new DoctorServiceImpl(doctorRepository, Mappers.getMapper(DoctorMapper.class),
+                    messageSource, allocator, rowCountCache);
+            patientServices.add(patientService);
+            appointmentServices.add(new AppointmentServiceImpl(appointmentRepository, patientService, doctorService,
+                    Mappers.getMapper(AppointmentMapper.class), messageSource, allocator, rowCountCache));
+            if (instance == 0) {
+                patientId = patientService.savePatient(patient(-1)).orElseThrow().getId();
+                doctorId = doctorService.saveDoctor(new DoctorDtoRequest("Awa", "Ndiaye", "awa.ndiaye@example.com",
+                        "780000000", "Cardiologie")).orElseThrow().getId();
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        jdbcTemplate.execute("delete from appointments");
+        jdbcTemplate.execute("delete from patients");
+        jdbcTemplate.execute("delete from doctors");
+        jdbcTemplate.execute("delete from registration_sequence");
+    }
+
+    @Test
+    void savePatient_shouldNeverHandOutTheSameNumberTwice_acrossInstances() throws Exception {
+        List<String> numbers = runConcurrently(thread -> () -> {
+            List<String> issued = new ArrayList<>();
+            for (int i = 0; i < INSERTS_PER_THREAD; i++) {
+                PatientDtoResponse patient = patientServices.get(thread % 2)
+                        .savePatient(patient(thread * INSERTS_PER_THREAD + i)).orElseThrow();
+                issued.add(patient.getRegistrationNumber());
+            }
+            return issued;
+        });
+
+        assertThat(numbers).hasSize(THREADS * INSERTS_PER_THREAD).doesNotHaveDuplicates().allMatch(n -> n.startsWith("PAT-"));
+        assertThat(realPatientRepository.findAll()).extracting("registrationNumber").doesNotHaveDuplicates();
+        verify(patientRepository, never()).count();
+    }
+
+    @Test
+    void saveAppointment_shouldNeverHandOutTheSameNumberTwice_acrossInstances() throws Exception {
+        List<String> numbers = runConcurrently(thread -> () -> {
+            SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(Jwt.withTokenValue("token")
+                    .header("alg", "none").claim("preferred_username", "secretary").build()));
+            List<String> issued = new ArrayList<>();
+            for (int i = 0; i < INSERTS_PER_THREAD; i++) {
+                AppointmentDtoResponse appointment = appointmentServices.get(thread % 2).saveAppointment(new AppointmentDtoRequest(
+                        LocalDateTime.of(2025, 1, 1, 8, 0).plusMinutes(thread * 1000L + i), "Consultation", patientId, doctorId))
+                        .orElseThrow();
+                issued.add(appointment.getAppointmentNum());
+            }
+            return issued;
+        });
+
+        assertThat(numbers).hasSize(THREADS * INSERTS_PER_THREAD).doesNotHaveDuplicates().allMatch(n -> n.startsWith("RDV-"));
+        assertThat(realAppointmentRepository.findAll()).extracting("appointmentNum").doesNotHaveDuplicates();
+        verify(appointmentRepository, never()).count();
+    }
+
+    @Test
+    void savePatient_shouldContinueAfterTheHighestNumber_whenExistingNumbersAreWiderThanThePadding() {
+        jdbcTemplate.execute("delete from registration_sequence");
+        jdbcTemplate.update("update patients set registration_number = 'PAT-1000000'");
+        jdbcTemplate.update("insert into patients (id, first_name, last_name, birth_date, place_of_birth, gender, phone_number," +
+                " registration_number) values ('legacy', 'Ancien', 'Patient', date '1980-01-01', 'Dakar', 'MALE', '779999999', 'PAT-999999')");
+
+        PatientDtoResponse patient = patientServices.get(1).savePatient(patient(0)).orElseThrow();
+
+        assertThat(patient.getRegistrationNumber()).isEqualTo("PAT-1000001");
+        verify(patientRepository, never()).count();
+    }
+
+    private List<String> runConcurrently(IntFunction<Callable<List<String>>> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                Callable<List<String>> callable = task.apply(t);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return callable.call();
+                }));
+            }
+            start.countDown();
+            List<String> numbers = new ArrayList<>();
+            for (Future<List<String>> future : futures) {
+                numbers.addAll(future.get(60, TimeUnit.SECONDS));
+            }
+            return numbers;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static PatientDtoRequest patient(int i) {
+        return new PatientDtoRequest("Prénom" + i, "Nom" + i, LocalDate.of(1990, 1, 1), "Dakar", Gender.FEMALE,
+                String.format("77%07d", i + 1), null, null, null);
+    }
+}
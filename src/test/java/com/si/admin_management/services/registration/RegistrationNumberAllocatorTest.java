@@ -0,0 +1,113 @@
+package com.si.admin_management.services.registration;
+
+import com.si.admin_management.entities.RegistrationSequenceEntity;
+import com.si.admin_management.repositories.RegistrationSequenceRepository;
+import com.si.admin_management.utils.RegistrationNumber;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class RegistrationNumberAllocatorTest {
+    private static final int BLOCK_SIZE = 10;
+
+    // Table registration_sequence simulée, partagée par toutes les instances d'un test
+    private final Map<String, Long> sequences = new ConcurrentHashMap<>();
+    private final AtomicInteger reservations = new AtomicInteger();
+    private final Object rowLock = new Object();
+    private RegistrationSequenceRepository registrationSequenceRepository;
+
+    @BeforeEach
+    void setUp() {
+        registrationSequenceRepository = mock(RegistrationSequenceRepository.class);
+        when(registrationSequenceRepository.findForUpdate(anyString())).thenAnswer(invocation -> {
+            String prefix = invocation.getArgument(0);
+            return Optional.ofNullable(sequences.get(prefix)).map(next -> new RegistrationSequenceEntity(prefix, next));
+        });
+        when(registrationSequenceRepository.save(any())).thenAnswer(invocation -> {
+            RegistrationSequenceEntity sequence = invocation.getArgument(0);
+            sequences.put(sequence.getPrefix(), sequence.getNextValue());
+            reservations.incrementAndGet();
+            return sequence;
+        });
+        when(registrationSequenceRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            RegistrationSequenceEntity sequence = invocation.getArgument(0);
+            if (sequences.putIfAbsent(sequence.getPrefix(), sequence.getNextValue()) != null) {
+                throw new DataIntegrityViolationException("Duplicate entry " + sequence.getPrefix());
+            }
+            reservations.incrementAndGet();
+            return sequence;
+        });
+    }
+
+    @Test
+    void next_shouldContinueAfterLastIssuedNumber_whenSequenceIsCreated() {
+        RegistrationNumberAllocator allocator = allocator();
+
+        assertThat(allocator.next("PAT", () -> Optional.of("PAT-000041"))).isEqualTo("PAT-000042");
+        assertThat(allocator.next("PAT", () -> Optional.of("PAT-000041"))).isEqualTo("PAT-000043");
+        assertThat(allocator.next("DOC", Optional::empty)).isEqualTo("DOC-000001");
+        assertThat(sequences).containsEntry("PAT", 42L + BLOCK_SIZE).containsEntry("DOC", 1L + BLOCK_SIZE);
+    }
+
+    @Test
+    void next_shouldReserveOneBlockPerBlockSize_andReadLastIssuedOnlyOnce() {
+        RegistrationNumberAllocator allocator = allocator();
+        @SuppressWarnings("unchecked")
+        Supplier<Optional<String>> lastIssued = mock(Supplier.class);
+        when(lastIssued.get()).thenReturn(Optional.empty());
+
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            numbers.add(allocator.next("RDV", lastIssued));
+        }
+
+        assertThat(numbers).first().isEqualTo("RDV-000001");
+        assertThat(numbers).last().isEqualTo("RDV-000025");
+        assertThat(reservations).hasValue(3);
+        verify(lastIssued, times(1)).get();
+    }
+
+    @Test
+    void next_shouldRetry_whenSequenceIsCreatedConcurrently() {
+        RegistrationNumberAllocator allocator = allocator();
+        sequences.put("PAT", 101L);
+        when(registrationSequenceRepository.findForUpdate("PAT"))
+                .thenReturn(Optional.empty())
+                .thenAnswer(invocation -> Optional.of(new RegistrationSequenceEntity("PAT", sequences.get("PAT"))));
+
+        assertThat(allocator.next("PAT", Optional::empty)).isEqualTo("PAT-000101");
+        assertThat(sequences).containsEntry("PAT", 101L + BLOCK_SIZE);
+    }
+
+    private RegistrationNumberAllocator allocator() {
+        // Le verrou pessimiste de la ligne est simulé en sérialisant les transactions de réservation
+        TransactionOperations lockedTransaction = new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                synchronized (rowLock) {
+                    return action.doInTransaction(null);
+                }
+            }
+        };
+        RegistrationNumberAllocator allocator = new RegistrationNumberAllocator(registrationSequenceRepository, lockedTransaction,
+                new RegistrationNumber());
+        ReflectionTestUtils.setField(allocator, "blockSize", BLOCK_SIZE);
+        return allocator;
+    }
+}
@@ -0,0 +1,63 @@
+package com.si.admin_management.services.roles;
+
+import com.si.admin_management.dtos.keycloak.AppPermission;
+import com.si.admin_management.dtos.keycloak.PermissionItem;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PermissionCatalogTest {
+    private static final Duration MAX_AGE = Duration.ofMinutes(5);
+
+    @Test
+    void get_shouldServeLoadedCatalog_untilMaxAge() {
+        AtomicInteger loads = new AtomicInteger();
+        PermissionCatalog catalog = new PermissionCatalog(() -> {
+            loads.incrementAndGet();
+            return List.of(permission("patient", "patient:read"));
+        });
+
+        PermissionCatalog.Snapshot first = catalog.get(MAX_AGE);
+        PermissionCatalog.Snapshot second = catalog.get(MAX_AGE);
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+
+        catalog.get(Duration.ZERO);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void invalidate_shouldForceReload() {
+        List<AppPermission> permissions = new ArrayList<>(List.of(permission("patient", "patient:read")));
+        PermissionCatalog catalog = new PermissionCatalog(() -> List.copyOf(permissions));
+        PermissionCatalog.Snapshot before = catalog.get(MAX_AGE);
+
+        permissions.add(permission("doctor", "doctor:read"));
+        catalog.invalidate();
+        PermissionCatalog.Snapshot after = catalog.get(MAX_AGE);
+
+        assertThat(after.permissions()).hasSize(2);
+        assertThat(after.version()).isNotEqualTo(before.version());
+    }
+
+    @Test
+    void version_shouldOnlyDependOnContent() {
+        PermissionCatalog catalog = new PermissionCatalog(() -> List.of(permission("patient", "patient:read")));
+
+        String first = catalog.get(MAX_AGE).version();
+        catalog.invalidate();
+        String reloaded = catalog.get(MAX_AGE).version();
+
+        assertThat(reloaded).isEqualTo(first);
+    }
+
+    private static AppPermission permission(String resource, String name) {
+        return new AppPermission(resource, resource, List.of(new PermissionItem(name, null)));
+    }
+}
@@ -0,0 +1,126 @@
+package com.si.admin_management.services.roles;
+
+import com.si.admin_management.dtos.keycloak.AppPermission;
+import com.si.admin_management.utils.BoundedFanOut;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.AuthorizationResource;
+import org.keycloak.admin.client.resource.PoliciesResource;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.authorization.PolicyRepresentation;
+import org.keycloak.representations.idm.authorization.ResourceRepresentation;
+import org.mockito.stubbing.Answer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Chargement du catalogue de permissions (getAllPermissions hors cache) sur un client de 30 ressources, contre un Keycloak simulé qui ajoute une latence fixe
+ * à chaque recherche de permissions. parallelism=1 reproduit l'ancien parcours séquentiel.
+ * Lancement : mvn test-compile puis exécuter la méthode main avec le classpath de test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoleServiceGetAllPermissionsBenchmark {
+    private static final int RESOURCE_COUNT = 30;
+
+    @Param({"1", "8"})
+    private int parallelism;
+
+    @Param({"5"})
+    private long latencyMillis;
+
+    private BoundedFanOut fanOut;
+    private RoleServiceImpl roleService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fanOut = new BoundedFanOut("benchmark-fan-out", parallelism, Duration.ofSeconds(30));
+        roleService = new RoleServiceImpl(keycloakStub(), fanOut);
+        ReflectionTestUtils.setField(roleService, "realm", "benchmark-realm");
+        ReflectionTestUtils.setField(roleService, "clientId", "benchmark-client");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fanOut.shutdown();
+    }
+
+    @Benchmark
+    public List<AppPermission> loadAllPermissions() {
+        return roleService.loadAllPermissions();
+    }
+
+    private Keycloak keycloakStub() {
+        List<ResourceRepresentation> resources = new ArrayList<>();
+        for (int i = 0; i < RESOURCE_COUNT; i++) {
+            ResourceRepresentation resource = new ResourceRepresentation("resource-" + i, Set.of());
+            resource.setId("res-id-" + i);
+            resources.add(resource);
+        }
+        List<PolicyRepresentation> policies = List.of("read", "create", "update", "delete").stream().map(scope -> {
+            PolicyRepresentation policy = new PolicyRepresentation();
+            policy.setName(scope + "-permission");
+            return policy;
+        }).toList();
+
+        ClientRepresentation client = new ClientRepresentation();
+        client.setId("client-uuid");
+        Keycloak keycloak = mock(Keycloak.class);
+        RealmResource realmResource = mock(RealmResource.class, RETURNS_DEEP_STUBS);
+        AuthorizationResource authorization = mock(AuthorizationResource.class, RETURNS_DEEP_STUBS);
+        PoliciesResource policiesResource = mock(PoliciesResource.class);
+        when(keycloak.realm(any())).thenReturn(realmResource);
+        when(realmResource.clients().findByClientId(any())).thenReturn(List.of(client));
+        when(realmResource.clients().get("client-uuid").authorization()).thenReturn(authorization);
+        when(authorization.resources().resources()).thenAnswer(withLatency(resources));
+        when(authorization.policies()).thenReturn(policiesResource);
+        when(policiesResource.policies(isNull(), isNull(), isNull(), any(), isNull(), eq(true),
+                isNull(), isNull(), isNull(), isNull())).thenAnswer(withLatency(policies));
+        return keycloak;
+    }
+
+    private <T> Answer<T> withLatency(T value) {
+        return invocation -> {
+            Thread.sleep(latencyMillis);
+            return value;
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RoleServiceGetAllPermissionsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
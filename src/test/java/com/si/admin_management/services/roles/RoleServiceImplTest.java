@@ -1,6 +1,8 @@
 package com.si.admin_management.services.roles;
 
 import com.si.admin_management.dtos.keycloak.*;
+import com.si.admin_management.utils.BoundedFanOut;
+import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.core.Response;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -10,6 +12,7 @@ import org.mockito.Answers;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.keycloak.admin.client.Keycloak;
 import org.keycloak.admin.client.resource.*;
@@ -18,11 +21,14 @@ import org.keycloak.representations.idm.RoleRepresentation;
 import org.keycloak.representations.idm.authorization.*;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,6 +51,9 @@ class RoleServiceImplTest {
     @Mock(answer = Answers.RETURNS_DEEP_STUBS)
     private AuthorizationResource authorizationResource;
 
+    @Spy
+    private BoundedFanOut keycloakFanOut = new BoundedFanOut("test-fan-out", 4, Duration.ofSeconds(5));
+
 
     @BeforeEach
     void setUp() {
@@ -88,6 +97,48 @@ class RoleServiceImplTest {
         assertThat(actualUuid).isEmpty();
     }
 
+    @Test
+    @DisplayName("getClientUUID devrait mémoriser l'UUID du client après la première recherche")
+    void getClientUUID_shouldResolveClientOnlyOnce() {
+        // GIVEN
+        when(realmResource.clients().findByClientId("test-client")).thenReturn(List.of(clientWithId("client-uuid-123")));
+
+        // WHEN
+        roleService.resolveClient();
+        roleService.getClientUUID();
+        String actualUuid = roleService.getClientUUID();
+
+        // THEN
+        assertEquals("client-uuid-123", actualUuid);
+        verify(realmResource.clients(), times(1)).findByClientId("test-client");
+    }
+
+    @Test
+    @DisplayName("getPermissionsByRole devrait rechercher à nouveau le client après un 404 puis réessayer")
+    void getPermissionsByRole_shouldResolveClientAgain_whenKeycloakReturnsNotFound() {
+        // GIVEN
+        when(realmResource.clients().findByClientId("test-client"))
+                .thenReturn(List.of(clientWithId("old-uuid")), List.of(clientWithId("new-uuid")));
+        AuthorizationResource staleAuthorization = mock(AuthorizationResource.class, RETURNS_DEEP_STUBS);
+        when(realmResource.clients().get("old-uuid").authorization()).thenReturn(staleAuthorization);
+        when(realmResource.clients().get("new-uuid").authorization()).thenReturn(authorizationResource);
+        when(staleAuthorization.policies().role().findByName("admin")).thenThrow(new NotFoundException());
+
+        RolePolicyRepresentation rolePolicy = new RolePolicyRepresentation();
+        rolePolicy.setId("policy-id-admin");
+        when(authorizationResource.policies().role().findByName("admin")).thenReturn(rolePolicy);
+        when(authorizationResource.policies().policy("policy-id-admin").dependentPolicies()).thenReturn(List.of());
+        roleService.resolveClient();
+
+        // WHEN
+        List<String> permissions = roleService.getPermissionsByRole("admin");
+
+        // THEN
+        assertThat(permissions).isEmpty();
+        assertEquals("new-uuid", roleService.getClientUUID());
+        verify(realmResource.clients(), times(2)).findByClientId("test-client");
+    }
+
     // --- Test de createRole et createPolicy ---
 
     @Test
@@ -171,11 +222,9 @@ class RoleServiceImplTest {
         role2.setId("id2");
 
         List<RoleRepresentation> pagedList = List.of(role1, role2);
-        List<RoleRepresentation> fullList = List.of(role1, role2, new RoleRepresentation()); // Total de 3
 
         when(realmResource.roles()).thenReturn(rolesResource);
         when(rolesResource.list(0, 10)).thenReturn(pagedList);
-        when(rolesResource.list()).thenReturn(fullList);
 
         // WHEN
         var resultPage = roleService.getRoles(0, 10);
@@ -185,6 +234,55 @@ class RoleServiceImplTest {
         assertThat(resultPage.getTotalElements()).isEqualTo(2);
         assertThat(resultPage.getContent()).hasSize(2);
         assertThat(resultPage.getContent().get(0).getName()).isEqualTo("role1");
+        // Première page incomplète : le total est connu sans lister tous les rôles
+        verify(rolesResource, never()).list();
+        verify(rolesResource, never()).list(anyBoolean());
+    }
+
+    @Test
+    @DisplayName("getRoles devrait garder le total en cache jusqu'à la création d'un rôle")
+    void getRoles_shouldCacheTotal_untilRoleIsCreated() {
+        // GIVEN
+        RoleRepresentation role1 = new RoleRepresentation("role1", "desc1", false);
+        RoleRepresentation role2 = new RoleRepresentation("role2", "desc2", false);
+        RoleRepresentation role3 = new RoleRepresentation("role3", "desc3", false);
+        when(realmResource.roles()).thenReturn(rolesResource);
+        when(rolesResource.list(0, 2)).thenReturn(List.of(role1, role2));
+        when(rolesResource.list(true)).thenReturn(List.of(role1, role2, role3));
+        when(realmResource.clients().findByClientId("test-client")).thenReturn(List.of());
+        when(rolesResource.get("role4").toRepresentation()).thenReturn(new RoleRepresentation("role4", null, false));
+        Response mockResponse = mock(Response.class);
+        when(mockResponse.getStatus()).thenReturn(201);
+        when(realmResource.clients().get("").authorization().policies().role().create(any(RolePolicyRepresentation.class))).thenReturn(mockResponse);
+
+        // WHEN
+        roleService.getRoles(0, 2);
+        var resultPage = roleService.getRoles(0, 2);
+        roleService.createRole(new KcRoleDtoRequest("role4", null));
+        roleService.getRoles(0, 2);
+
+        // THEN
+        assertThat(resultPage.getTotalElements()).isEqualTo(3);
+        verify(rolesResource, times(2)).list(true);
+    }
+
+    @Test
+    @DisplayName("searchRoles devrait filtrer les rôles par nom côté Keycloak")
+    void searchRoles_shouldFilterByNameOnServer() {
+        // GIVEN
+        RoleRepresentation role1 = new RoleRepresentation("app_admin", "Administrateur", false);
+        RoleRepresentation role2 = new RoleRepresentation("app_doctor", "Médecin", false);
+        when(realmResource.roles()).thenReturn(rolesResource);
+        when(rolesResource.list("app_", 2, 2, true)).thenReturn(List.of(role1, role2));
+        when(rolesResource.list("app_", true)).thenReturn(List.of(role1, role2, role1, role2, role1));
+
+        // WHEN
+        var resultPage = roleService.searchRoles(" app_ ", 1, 2);
+
+        // THEN
+        assertThat(resultPage.getContent()).extracting(KcRoleDto::getName).containsExactly("app_admin", "app_doctor");
+        assertThat(resultPage.getTotalElements()).isEqualTo(5);
+        verify(rolesResource, never()).list();
     }
 
     // --- Test de getAllPermissions ---
@@ -222,6 +320,61 @@ class RoleServiceImplTest {
         assertThat(appPermission.getPermissions().get(0).getName()).isEqualTo("permission-view-a");
     }
 
+    @Test
+    @DisplayName("getAllPermissions devrait interroger les ressources en parallèle en conservant leur ordre")
+    void getAllPermissions_shouldKeepResourceOrder_whenLookupsRunConcurrently() {
+        // GIVEN
+        String clientUuid = "client-uuid-123";
+        when(realmResource.clients().findByClientId("test-client")).thenReturn(List.of(clientWithId(clientUuid)));
+        when(realmResource.clients().get(clientUuid).authorization()).thenReturn(authorizationResource);
+
+        List<ResourceRepresentation> resources = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            ResourceRepresentation resource = new ResourceRepresentation("resource-" + i, Set.of());
+            resource.setId("res-id-" + i);
+            resources.add(resource);
+            PolicyRepresentation policy = new PolicyRepresentation();
+            policy.setName("read-resource-" + i);
+            long latency = 12 - i;
+            when(authorizationResource.policies().policies(null, null, null, "res-id-" + i, null, true, null, null, null, null))
+                    .thenAnswer(invocation -> {
+                        // Les premières ressources répondent en dernier
+                        Thread.sleep(latency * 5);
+                        return List.of(policy);
+                    });
+        }
+        when(authorizationResource.resources().resources()).thenReturn(resources);
+
+        // WHEN
+        List<AppPermission> permissions = roleService.getAllPermissions();
+
+        // THEN
+        assertThat(permissions).extracting(AppPermission::getResourceName)
+                .containsExactlyElementsOf(resources.stream().map(ResourceRepresentation::getName).toList());
+        for (int i = 0; i < 12; i++) {
+            assertThat(permissions.get(i).getPermissions().get(0).getName()).isEqualTo("read-resource-" + i);
+        }
+    }
+
+    @Test
+    @DisplayName("getAllPermissions devrait servir le catalogue en cache jusqu'à une affectation de permissions")
+    void getAllPermissions_shouldUseCachedCatalog_untilPermissionsAreAssigned() {
+        // GIVEN
+        when(authorizationResource.resources().resources()).thenReturn(List.of());
+        givenRolePolicyAndScopePermissions("app_admin", List.of(scopePermission("perm-id", "patient:read")), List.of());
+        when(authorizationResource.permissions().scope().findById("perm-id").associatedPolicies()).thenReturn(List.of());
+        var request = new AssignPermissionRequestDto(List.of(new PermissionItem("patient:read", null)));
+
+        // WHEN
+        roleService.getAllPermissions();
+        roleService.getAllPermissions();
+        roleService.assignPermissionsToRole("app_admin", request);
+        roleService.getAllPermissions();
+
+        // THEN
+        verify(authorizationResource.resources(), times(2)).resources();
+    }
+
     // --- Test de getPermissionsByRole ---
 
     @Test
@@ -258,36 +411,26 @@ class RoleServiceImplTest {
         String permissionName = "new-permission";
         String permissionDescription = "existing-permission description";
         var request = new AssignPermissionRequestDto(List.of(new PermissionItem(permissionName , permissionDescription)));
+        givenRolePolicyAndScopePermissions(roleName, List.of(scopePermission("perm-id", permissionName)), List.of());
 
-        String clientUuid = "client-uuid-123";
-        when(realmResource.clients().findByClientId("test-client")).thenReturn(List.of(clientWithId(clientUuid)));
-        when(realmResource.clients().get(clientUuid).authorization()).thenReturn(authorizationResource);
-
-        // Mocks pour la permission
-        ScopePermissionRepresentation scopePerm = new ScopePermissionRepresentation();
-        scopePerm.setId("perm-id");
-        scopePerm.setName(permissionName);
-        when(authorizationResource.permissions().scope().findByName(permissionName)).thenReturn(scopePerm);
-
-        // Mocks pour la policy du rôle
-        PolicyRepresentation rolePolicy = new PolicyRepresentation();
-        rolePolicy.setId("role-policy-id");
-        when(authorizationResource.policies().findByName(roleName)).thenReturn(rolePolicy);
-
-        // Mock des policies déjà associées (ici, aucune)
-        when(authorizationResource.permissions().scope().findById("perm-id").associatedPolicies()).thenReturn(List.of());
+        // Mock des policies déjà associées à la permission (une autre policy de rôle)
+        PolicyRepresentation otherPolicy = new PolicyRepresentation();
+        otherPolicy.setId("other-policy-id");
+        when(authorizationResource.permissions().scope().findById("perm-id").associatedPolicies()).thenReturn(List.of(otherPolicy));
 
         // WHEN
-        roleService.assignPermissionsToRole(roleName, request);
+        List<PermissionAssignmentResult> results = roleService.assignPermissionsToRole(roleName, request);
 
         // THEN
         // On vérifie que la mise à jour est bien appelée
         ArgumentCaptor<ScopePermissionRepresentation> captor = ArgumentCaptor.forClass(ScopePermissionRepresentation.class);
         verify(authorizationResource.permissions().scope().findById("perm-id")).update(captor.capture());
 
-        // On vérifie que la policy a bien été ajoutée
-        assertThat(captor.getValue().getPolicies()).contains("role-policy-id");
+        // On vérifie que la policy a bien été ajoutée sans retirer les autres
+        assertThat(captor.getValue().getPolicies()).containsExactlyInAnyOrder("role-policy-id", "other-policy-id");
         assertThat(captor.getValue().getDecisionStrategy()).isEqualTo(DecisionStrategy.AFFIRMATIVE);
+        assertThat(results).extracting(PermissionAssignmentResult::getStatus)
+                .containsExactly(PermissionAssignmentResult.Status.ASSIGNED);
     }
 
     @Test
@@ -299,30 +442,75 @@ class RoleServiceImplTest {
         String permissionDescription = "existing-permission description";
         var request = new AssignPermissionRequestDto(List.of(new PermissionItem(permissionName , permissionDescription)));
 
+        // La permission fait déjà partie des policies dépendantes de la policy du rôle
+        givenRolePolicyAndScopePermissions(roleName, List.of(scopePermission("perm-id", permissionName)),
+                List.of(scopePermission("perm-id", permissionName)));
+
+        // WHEN
+        List<PermissionAssignmentResult> results = roleService.assignPermissionsToRole(roleName, request);
+
+        // THEN
+        // On vérifie que la mise à jour n'a JAMAIS été appelée
+        verify(authorizationResource.permissions().scope().findById("perm-id"), never()).update(any());
+        assertThat(results).extracting(PermissionAssignmentResult::getStatus)
+                .containsExactly(PermissionAssignmentResult.Status.ALREADY_ASSIGNED);
+    }
+
+    @Test
+    @DisplayName("assignPermissionsToRole devrait résoudre la policy une seule fois et rendre un rapport par permission")
+    void assignPermissionsToRole_shouldReportEachPermission() {
+        // GIVEN
+        String roleName = "test-role";
+        var request = new AssignPermissionRequestDto(List.of(
+                new PermissionItem("patient:read", null),
+                new PermissionItem("patient:delete", null),
+                new PermissionItem("unknown", null),
+                new PermissionItem("doctor:read", null)
+        ));
+        givenRolePolicyAndScopePermissions(roleName,
+                List.of(scopePermission("perm-1", "patient:read"), scopePermission("perm-2", "patient:delete"),
+                        scopePermission("perm-3", "doctor:read")),
+                List.of(scopePermission("perm-3", "doctor:read")));
+        when(authorizationResource.permissions().scope().findById("perm-1").associatedPolicies()).thenReturn(List.of());
+        when(authorizationResource.permissions().scope().findById("perm-2").associatedPolicies())
+                .thenThrow(new RuntimeException("HTTP 500 Internal Server Error"));
+
+        // WHEN
+        List<PermissionAssignmentResult> results = roleService.assignPermissionsToRole(roleName, request);
+
+        // THEN
+        assertThat(results).extracting(PermissionAssignmentResult::getName, PermissionAssignmentResult::getStatus)
+                .containsExactly(
+                        tuple("patient:read", PermissionAssignmentResult.Status.ASSIGNED),
+                        tuple("patient:delete", PermissionAssignmentResult.Status.FAILED),
+                        tuple("unknown", PermissionAssignmentResult.Status.NOT_FOUND),
+                        tuple("doctor:read", PermissionAssignmentResult.Status.ALREADY_ASSIGNED)
+                );
+        verify(authorizationResource.policies(), times(1)).findByName(roleName);
+        verify(authorizationResource.permissions().scope(), never()).findByName(any());
+    }
+
+    private void givenRolePolicyAndScopePermissions(String roleName, List<PolicyRepresentation> scopePermissions,
+                                                    List<PolicyRepresentation> dependentPolicies) {
         String clientUuid = "client-uuid-123";
         when(realmResource.clients().findByClientId("test-client")).thenReturn(List.of(clientWithId(clientUuid)));
         when(realmResource.clients().get(clientUuid).authorization()).thenReturn(authorizationResource);
 
-        ScopePermissionRepresentation scopePerm = new ScopePermissionRepresentation();
-        scopePerm.setId("perm-id");
-        when(authorizationResource.permissions().scope().findByName(permissionName)).thenReturn(scopePerm);
-
+        // Mocks pour la policy du rôle
         PolicyRepresentation rolePolicy = new PolicyRepresentation();
         rolePolicy.setId("role-policy-id");
         when(authorizationResource.policies().findByName(roleName)).thenReturn(rolePolicy);
+        when(authorizationResource.policies().policies(null, null, "scope", null, null, true, null, null, 0, 100))
+                .thenReturn(scopePermissions);
+        when(authorizationResource.policies().policy("role-policy-id").dependentPolicies()).thenReturn(dependentPolicies);
+    }
 
-        // Mock des policies déjà associées (la policy du rôle est déjà là)
-        //AbstractPolicyRepresentation existingAssociatedPolicy = new PolicyRepresentation();
-        PolicyRepresentation existingAssociatedPolicy = new PolicyRepresentation();
-        existingAssociatedPolicy.setName("role-policy-id"); // NOTE : le test d'appartenance se fait sur le NOM !
-        when(authorizationResource.permissions().scope().findById("perm-id").associatedPolicies()).thenReturn(List.of(existingAssociatedPolicy));
-
-        // WHEN
-        roleService.assignPermissionsToRole(roleName, request);
-
-        // THEN
-        // On vérifie que la mise à jour n'a JAMAIS été appelée
-        verify(authorizationResource.permissions().scope().findById("perm-id"), never()).update(any());
+    private PolicyRepresentation scopePermission(String id, String name) {
+        PolicyRepresentation permission = new PolicyRepresentation();
+        permission.setId(id);
+        permission.setName(name);
+        permission.setType("scope");
+        return permission;
     }
 
     // --- Helper Method ---
@@ -0,0 +1,166 @@
+package com.si.admin_management.services.users;
+
+import com.si.admin_management.dtos.keycloak.KcUserDto;
+import com.si.admin_management.entities.UserDirectoryEntity;
+import com.si.admin_management.repositories.UserDirectoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.RoleResource;
+import org.keycloak.admin.client.resource.RolesResource;
+import org.keycloak.admin.client.resource.UsersResource;
+import org.keycloak.representations.idm.RealmRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserDirectoryTest {
+
+    @Mock
+    private Keycloak keycloakAdmin;
+
+    @Mock
+    private RealmResource realmResource;
+
+    @Mock
+    private UsersResource usersResource;
+
+    @Mock
+    private RolesResource rolesResource;
+
+    @Mock
+    private RoleResource doctorResource;
+
+    @Mock
+    private UserDirectoryRepository userDirectoryRepository;
+
+    @Captor
+    private ArgumentCaptor<List<UserDirectoryEntity>> writtenCaptor;
+
+    private final Instant now = Instant.parse("2025-01-01T10:00:00Z");
+    private UserDirectory userDirectory;
+
+    @BeforeEach
+    void setUp() {
+        userDirectory = new UserDirectory(keycloakAdmin, userDirectoryRepository, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @Test
+    void synchronize_shouldWriteOnlyChangedUsers_andRemoveDeletedOnes() {
+        UserRepresentation unchanged = user("1", "alice@example.com", "Alice");
+        UserRepresentation renamed = user("2", "bob@example.com", "Robert");
+        UserRepresentation created = user("3", "carol@example.com", "Carol");
+        mockKeycloak(List.of(unchanged, renamed, created), List.of(unchanged, renamed, created));
+        when(userDirectoryRepository.findAll()).thenReturn(List.of(
+                entry("1", "alice@example.com", "Alice", "doctor", now.minusSeconds(60)),
+                entry("2", "bob@example.com", "Bob", "doctor", now.minusSeconds(60)),
+                entry("4", "dave@example.com", "Dave", "doctor", now.minusSeconds(60))));
+
+        UserDirectory.SyncResult result = userDirectory.synchronize();
+
+        assertThat(result).isEqualTo(new UserDirectory.SyncResult(3, 2, 1));
+        verify(userDirectoryRepository).saveAll(writtenCaptor.capture());
+        assertThat(writtenCaptor.getValue()).extracting(UserDirectoryEntity::getId).containsExactly("2", "3");
+        assertThat(writtenCaptor.getValue().get(0).getFirstName()).isEqualTo("Robert");
+        assertThat(writtenCaptor.getValue().get(1).getRealmRoles()).isEqualTo("doctor");
+        verify(userDirectoryRepository).deleteAllByIdInBatch(List.of("4"));
+    }
+
+    @Test
+    void synchronize_shouldKeepLocalWrites_madeAfterSyncStarted() {
+        mockKeycloak(List.of(), List.of());
+        when(userDirectoryRepository.findAll()).thenReturn(List.of(
+                entry("5", "eve@example.com", "Eve", "doctor", now.plusSeconds(1))));
+
+        userDirectory.synchronize();
+
+        verify(userDirectoryRepository).deleteAllByIdInBatch(List.of());
+    }
+
+    @Test
+    void synchronize_shouldNotReinsertUser_removedAfterUsersWereListed() {
+        UserRepresentation alice = user("1", "alice@example.com", "Alice");
+        UserRepresentation carol = user("3", "carol@example.com", "Carol");
+        mockKeycloak(List.of(alice, carol), List.of(alice, carol));
+        // Carol est supprimée par le service pendant que la synchro lit encore Keycloak
+        when(usersResource.list(0, 500)).thenAnswer(invocation -> {
+            userDirectory.remove("3");
+            return List.of(alice, carol);
+        });
+        when(userDirectoryRepository.findAll()).thenReturn(List.of());
+
+        UserDirectory.SyncResult result = userDirectory.synchronize();
+
+        assertThat(result.written()).isEqualTo(1);
+        verify(userDirectoryRepository).saveAll(writtenCaptor.capture());
+        assertThat(writtenCaptor.getValue()).extracting(UserDirectoryEntity::getId).containsExactly("1");
+        verify(userDirectoryRepository).deleteById("3");
+    }
+
+    @Test
+    void sync_shouldStayNotReady_whenKeycloakIsUnreachable() {
+        when(keycloakAdmin.realm(any())).thenThrow(new RuntimeException("Connection refused"));
+
+        userDirectory.sync();
+
+        assertThat(userDirectory.isReady()).isFalse();
+        verifyNoInteractions(userDirectoryRepository);
+    }
+
+    @Test
+    void findAll_shouldServeUsersFromLocalCopy() {
+        when(userDirectoryRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(
+                entry("1", "alice@example.com", "Alice", "default-roles,doctor", now))));
+
+        List<KcUserDto> users = userDirectory.findAll(0, 10).getContent();
+
+        assertThat(users).hasSize(1);
+        assertThat(users.get(0).getRealmRoles()).containsExactly("default-roles", "doctor");
+        verifyNoInteractions(keycloakAdmin);
+    }
+
+    private void mockKeycloak(List<UserRepresentation> users, List<UserRepresentation> doctors) {
+        RoleRepresentation doctor = new RoleRepresentation();
+        doctor.setName("doctor");
+        when(keycloakAdmin.realm(any())).thenReturn(realmResource);
+        when(realmResource.users()).thenReturn(usersResource);
+        when(realmResource.roles()).thenReturn(rolesResource);
+        when(realmResource.toRepresentation()).thenReturn(new RealmRepresentation());
+        when(usersResource.list(0, 500)).thenReturn(users);
+        when(rolesResource.list()).thenReturn(List.of(doctor));
+        when(rolesResource.get("doctor")).thenReturn(doctorResource);
+        when(doctorResource.getUserMembers(0, 500)).thenReturn(doctors);
+    }
+
+    private UserRepresentation user(String id, String email, String firstName) {
+        UserRepresentation user = new UserRepresentation();
+        user.setId(id);
+        user.setUsername(email);
+        user.setEmail(email);
+        user.setFirstName(firstName);
+        user.setLastName("Test");
+        user.setEnabled(true);
+        return user;
+    }
+
+    private UserDirectoryEntity entry(String id, String email, String firstName, String realmRoles, Instant syncedAt) {
+        return new UserDirectoryEntity(id, email, firstName, "Test", email, true, realmRoles, syncedAt);
+    }
+}
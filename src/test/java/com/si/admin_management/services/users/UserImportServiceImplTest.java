@@ -0,0 +1,199 @@
+package com.si.admin_management.services.users;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.si.admin_management.dtos.keycloak.KcUserDto;
+import com.si.admin_management.dtos.keycloak.KcUserDtoRequest;
+import com.si.admin_management.dtos.keycloak.UserImportResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserImportServiceImplTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private IUserService userService;
+
+    private UserImportServiceImpl importService;
+
+    @AfterEach
+    void tearDown() {
+        if (importService != null) {
+            importService.shutdown();
+        }
+    }
+
+    @Test
+    void importUsers_shouldReportEachJsonRow() throws IOException {
+        importService = new UserImportServiceImpl(userService, objectMapper, 2);
+        when(userService.createUser(argThat(request -> request != null && "ana@clinic.sn".equals(request.getEmail()))))
+                .thenReturn(new KcUserDto("id-ana", "ana@clinic.sn", "Ana", "Diop", "ana@clinic.sn", true, List.of("app_doctor")));
+        when(userService.createUser(argThat(request -> request != null && "dup@clinic.sn".equals(request.getEmail()))))
+                .thenReturn(null);
+        String json = """
+                [
+                  {"firstName": "Ana", "lastName": "Diop", "email": "ana@clinic.sn", "password": "secret", "role": "app_doctor"},
+                  {"firstName": "Dup", "lastName": "Licate", "email": "dup@clinic.sn", "password": "secret", "role": "app_doctor"},
+                  {"firstName": "No", "lastName": "Password", "email": "nopass@clinic.sn", "role": "app_nurse"}
+                ]
+                """;
+
+        List<UserImportResult> results = importUsers(json, MediaType.APPLICATION_JSON);
+
+        assertThat(results).extracting(UserImportResult::getRow, UserImportResult::getStatus, UserImportResult::getUserId)
+                .containsExactly(
+                        tuple(1, UserImportResult.Status.CREATED, "id-ana"),
+                        tuple(2, UserImportResult.Status.FAILED, null),
+                        tuple(3, UserImportResult.Status.INVALID, null)
+                );
+        assertThat(results.get(2).getMessage()).isEqualTo("Missing fields : password");
+        verify(userService, never()).createUser(argThat(request -> request != null && "nopass@clinic.sn".equals(request.getEmail())));
+    }
+
+    @Test
+    void importUsers_shouldReportMalformedJsonRowAsInvalid_andImportTheOthers() throws IOException {
+        importService = new UserImportServiceImpl(userService, objectMapper, 2);
+        when(userService.createUser(any(KcUserDtoRequest.class)))
+                .thenAnswer(invocation -> {
+                    KcUserDtoRequest request = invocation.getArgument(0);
+                    return new KcUserDto("id-" + request.getFirstName(), request.getEmail(), request.getFirstName(),
+                            request.getLastName(), request.getEmail(), true, List.of(request.getRole()));
+                });
+        String json = """
+                [
+                  {"firstName": "Ana", "lastName": "Diop", "email": "ana@clinic.sn", "password": "secret", "role": "app_doctor"},
+                  {"firstName": {"given": "Bad"}, "lastName": "Shape", "email": "bad@clinic.sn", "password": "secret", "role": "app_nurse"},
+                  42,
+                  {"firstName": "Moussa", "lastName": "Fall", "email": "moussa@clinic.sn", "password": "secret", "role": "app_treasurer"}
+                ]
+                """;
+
+        List<UserImportResult> results = importUsers(json, MediaType.APPLICATION_JSON);
+
+        assertThat(results).extracting(UserImportResult::getRow, UserImportResult::getEmail, UserImportResult::getStatus)
+                .containsExactly(
+                        tuple(1, "ana@clinic.sn", UserImportResult.Status.CREATED),
+                        tuple(2, "bad@clinic.sn", UserImportResult.Status.INVALID),
+                        tuple(3, null, UserImportResult.Status.INVALID),
+                        tuple(4, "moussa@clinic.sn", UserImportResult.Status.CREATED)
+                );
+        assertThat(results.get(1).getMessage()).startsWith("Invalid user : ");
+        assertThat(results.get(2).getMessage()).isEqualTo("Expected a JSON object");
+        verify(userService, times(2)).createUser(any(KcUserDtoRequest.class));
+    }
+
+    @Test
+    void importUsers_shouldReadCsvColumnsByHeader() throws IOException {
+        importService = new UserImportServiceImpl(userService, objectMapper, 2);
+        when(userService.createUser(any(KcUserDtoRequest.class)))
+                .thenAnswer(invocation -> {
+                    KcUserDtoRequest request = invocation.getArgument(0);
+                    return new KcUserDto("id-" + request.getFirstName(), request.getEmail(), request.getFirstName(),
+                            request.getLastName(), request.getEmail(), true, List.of(request.getRole()));
+                });
+        String csv = "\uFEFFemail,firstName,lastName,role,password\n"
+                + "awa@clinic.sn, Awa ,Ndiaye,app_secretary,secret\n"
+                + "\n"
+                + "moussa@clinic.sn,Moussa,Fall,app_treasurer,secret\n";
+
+        List<UserImportResult> results = importUsers(csv, MediaType.parseMediaType("text/csv;charset=UTF-8"));
+
+        assertThat(results).extracting(UserImportResult::getEmail, UserImportResult::getUserId)
+                .containsExactly(tuple("awa@clinic.sn", "id-Awa"), tuple("moussa@clinic.sn", "id-Moussa"));
+        verify(userService).createUser(new KcUserDtoRequest("Awa", "Ndiaye", "awa@clinic.sn", "secret", "app_secretary"));
+    }
+
+    @Test
+    void importUsers_shouldReadQuotedCsvValues() throws IOException {
+        importService = new UserImportServiceImpl(userService, objectMapper, 2);
+        when(userService.createUser(any(KcUserDtoRequest.class)))
+                .thenAnswer(invocation -> {
+                    KcUserDtoRequest request = invocation.getArgument(0);
+                    return new KcUserDto("id-" + request.getEmail(), request.getEmail(), request.getFirstName(),
+                            request.getLastName(), request.getEmail(), true, List.of(request.getRole()));
+                });
+        String csv = "firstName,lastName,email,password,role\r\n"
+                + "Awa,\"Ndiaye, épouse Fall\",awa@clinic.sn,\"p@ss,\"\"word\"\"\",app_secretary\r\n"
+                + " \"Moussa\" ,\"Fall\nJunior\",moussa@clinic.sn,secret,app_treasurer\r\n";
+
+        List<UserImportResult> results = importUsers(csv, IUserImportService.TEXT_CSV);
+
+        assertThat(results).extracting(UserImportResult::getRow, UserImportResult::getStatus)
+                .containsExactly(tuple(1, UserImportResult.Status.CREATED), tuple(2, UserImportResult.Status.CREATED));
+        verify(userService).createUser(new KcUserDtoRequest("Awa", "Ndiaye, épouse Fall", "awa@clinic.sn", "p@ss,\"word\"", "app_secretary"));
+        verify(userService).createUser(new KcUserDtoRequest("Moussa", "Fall\nJunior", "moussa@clinic.sn", "secret", "app_treasurer"));
+    }
+
+    @Test
+    void importUsers_shouldRejectUnterminatedQuotedCsvValue() {
+        importService = new UserImportServiceImpl(userService, objectMapper, 2);
+        String csv = "firstName,lastName,email,password,role\n"
+                + "Awa,\"Ndiaye,awa@clinic.sn,secret,app_secretary\n";
+
+        assertThatThrownBy(() -> importUsers(csv, IUserImportService.TEXT_CSV))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Unterminated quoted CSV value");
+        verify(userService, never()).createUser(any(KcUserDtoRequest.class));
+    }
+
+    @Test
+    void importUsers_shouldNeverExceedConfiguredConcurrency() throws IOException {
+        importService = new UserImportServiceImpl(userService, objectMapper, 3);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(userService.createUser(any(KcUserDtoRequest.class))).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(10);
+            inFlight.decrementAndGet();
+            KcUserDtoRequest request = invocation.getArgument(0);
+            return new KcUserDto("id-" + request.getEmail(), request.getEmail(), null, null, request.getEmail(), true, List.of());
+        });
+        StringBuilder csv = new StringBuilder("firstName,lastName,email,password,role\n");
+        for (int i = 0; i < 30; i++) {
+            csv.append("First,Last,user").append(i).append("@clinic.sn,secret,app_nurse\n");
+        }
+
+        List<UserImportResult> results = importUsers(csv.toString(), IUserImportService.TEXT_CSV);
+
+        assertThat(results).hasSize(30).allMatch(result -> result.getStatus() == UserImportResult.Status.CREATED);
+        assertThat(maxInFlight.get()).isBetween(1, 3);
+        verify(userService, times(30)).createUser(any(KcUserDtoRequest.class));
+    }
+
+    private List<UserImportResult> importUsers(String body, MediaType contentType) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        importService.importUsers(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), contentType, output);
+        List<UserImportResult> results = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isBlank()) {
+                results.add(objectMapper.readValue(line, UserImportResult.class));
+            }
+        }
+        // Les lignes sont écrites dans l'ordre de fin de traitement
+        results.sort(Comparator.comparingInt(UserImportResult::getRow));
+        return results;
+    }
+}
@@ -0,0 +1,177 @@
+package com.si.admin_management.services.users;
+
+import com.si.admin_management.dtos.keycloak.KcUserDto;
+import com.si.admin_management.utils.BoundedFanOut;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.RoleResource;
+import org.keycloak.admin.client.resource.RolesResource;
+import org.keycloak.admin.client.resource.UserResource;
+import org.keycloak.admin.client.resource.UsersResource;
+import org.keycloak.representations.idm.RealmRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.mockito.stubbing.Answer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * getUsers sur une page de 100 utilisateurs d'un realm de realmUsers utilisateurs, contre un Keycloak simulé qui
+ * ajoute une latence fixe à chaque appel. Comme dans realm-export.json, tous les utilisateurs ont le rôle composite
+ * default-roles-admin-management-system en plus de leur rôle applicatif.
+ * "sequential" (parallel avec un seul thread) reproduit l'ancien comportement N+1.
+ * Lancement : mvn test-compile puis exécuter la méthode main avec le classpath de test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceGetUsersBenchmark {
+    private static final int PAGE_SIZE = 100;
+    private static final List<String> ROLES = List.of("app_admin", "doctor", "nurse", "secretary", "treasurer");
+    private static final String DEFAULT_ROLE = "default-roles-admin-management-system";
+
+    @Param({"sequential", "parallel", "membership"})
+    private String roleLookup;
+
+    @Param({"2"})
+    private long latencyMillis;
+
+    @Param({"100", "10000"})
+    private int realmUsers;
+
+    private BoundedFanOut fanOut;
+    private UserServiceImpl userService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fanOut = new BoundedFanOut("benchmark-fan-out", "sequential".equals(roleLookup) ? 1 : 8, Duration.ofSeconds(30));
+        userService = new UserServiceImpl(keycloakStub(), fanOut);
+        ReflectionTestUtils.setField(userService, "roleLookup", "sequential".equals(roleLookup) ? "parallel" : roleLookup);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fanOut.shutdown();
+    }
+
+    @Benchmark
+    public Page<KcUserDto> getUsers() {
+        return userService.getUsers(0, PAGE_SIZE);
+    }
+
+    private Keycloak keycloakStub() {
+        List<UserRepresentation> users = new ArrayList<>();
+        for (int i = 0; i < realmUsers; i++) {
+            UserRepresentation user = new UserRepresentation();
+            user.setId("user-" + i);
+            user.setUsername("user-" + i);
+            user.setEnabled(true);
+            users.add(user);
+        }
+        List<RoleRepresentation> appRoles = ROLES.stream().map(name -> role(name, false)).toList();
+        RoleRepresentation defaultRole = role(DEFAULT_ROLE, true);
+        List<RoleRepresentation> defaultComposites = List.of(role("offline_access", false), role("uma_authorization", false));
+        List<RoleRepresentation> realmRoles = new ArrayList<>(appRoles);
+        realmRoles.add(defaultRole);
+        realmRoles.addAll(defaultComposites);
+        RealmRepresentation realmRepresentation = new RealmRepresentation();
+        realmRepresentation.setDefaultRole(defaultRole);
+
+        Keycloak keycloak = mock(Keycloak.class);
+        RealmResource realmResource = mock(RealmResource.class);
+        UsersResource usersResource = mock(UsersResource.class);
+        RolesResource rolesResource = mock(RolesResource.class);
+        when(keycloak.realm(any())).thenReturn(realmResource);
+        when(realmResource.users()).thenReturn(usersResource);
+        when(realmResource.roles()).thenReturn(rolesResource);
+        when(realmResource.toRepresentation()).thenAnswer(withLatency(realmRepresentation));
+        when(usersResource.list(anyInt(), anyInt())).thenAnswer(withLatency(users.subList(0, PAGE_SIZE)));
+        when(usersResource.count()).thenAnswer(withLatency(realmUsers));
+        when(rolesResource.list()).thenAnswer(withLatency(realmRoles));
+
+        for (int r = 0; r < ROLES.size(); r++) {
+            List<UserRepresentation> members = new ArrayList<>();
+            for (int i = r; i < realmUsers; i += ROLES.size()) {
+                members.add(users.get(i));
+            }
+            mockRole(rolesResource, ROLES.get(r), members, List.of());
+        }
+        mockRole(rolesResource, DEFAULT_ROLE, users, defaultComposites);
+        for (RoleRepresentation composite : defaultComposites) {
+            mockRole(rolesResource, composite.getName(), List.of(), List.of());
+        }
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            UserResource userResource = mock(UserResource.class, RETURNS_DEEP_STUBS);
+            List<RoleRepresentation> effective = new ArrayList<>(defaultComposites);
+            effective.add(defaultRole);
+            effective.add(appRoles.get(i % ROLES.size()));
+            when(userResource.roles().realmLevel().listEffective()).thenAnswer(withLatency(effective));
+            when(usersResource.get("user-" + i)).thenReturn(userResource);
+        }
+        return keycloak;
+    }
+
+    // Membres servis page par page (first, max), comme l'API d'administration
+    private void mockRole(RolesResource rolesResource, String name, List<UserRepresentation> members,
+                          List<RoleRepresentation> composites) {
+        RoleResource roleResource = mock(RoleResource.class);
+        when(roleResource.getUserMembers(anyInt(), anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(latencyMillis);
+            int first = Math.min(invocation.<Integer>getArgument(0), members.size());
+            return members.subList(first, Math.min(first + invocation.<Integer>getArgument(1), members.size()));
+        });
+        when(roleResource.getRealmRoleComposites()).thenAnswer(withLatency(Set.copyOf(composites)));
+        when(rolesResource.get(name)).thenReturn(roleResource);
+    }
+
+    private static RoleRepresentation role(String name, boolean composite) {
+        RoleRepresentation role = new RoleRepresentation();
+        role.setName(name);
+        role.setComposite(composite);
+        return role;
+    }
+
+    private <T> Answer<T> withLatency(T value) {
+        return invocation -> {
+            Thread.sleep(latencyMillis);
+            return value;
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UserServiceGetUsersBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -4,6 +4,7 @@ import com.si.admin_management.dtos.keycloak.KcUserDto;
 import com.si.admin_management.dtos.keycloak.KcUserDtoRequest;
 import com.si.admin_management.dtos.keycloak.Permission;
 import com.si.admin_management.dtos.keycloak.UserInfos;
+import com.si.admin_management.utils.BoundedFanOut;
 import jakarta.ws.rs.core.Response;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.keycloak.admin.client.Keycloak;
 import org.keycloak.admin.client.resource.*;
 import org.keycloak.representations.idm.CredentialRepresentation;
+import org.keycloak.representations.idm.RealmRepresentation;
 import org.keycloak.representations.idm.RoleRepresentation;
 import org.keycloak.representations.idm.UserRepresentation;
 import org.mockito.InjectMocks;
@@ -25,9 +27,12 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.net.URI;
+import java.time.Duration;
 import java.util.*;
 import java.util.logging.Logger;
 
@@ -89,6 +94,9 @@ public class UserServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        // Tests de pagination : rôles lus par membership, sans rôle par défaut dans le realm simulé
+        ReflectionTestUtils.setField(userService, "roleLookup", "membership");
+        lenient().when(realmResource.toRepresentation()).thenReturn(new RealmRepresentation());
     }
 
     @Test
@@ -101,12 +109,6 @@ public class UserServiceImplTest {
         request.setPassword("password123");
         request.setRole("USER");
 
-        UserRepresentation existingUser = new UserRepresentation();
-        existingUser.setId("user-id-123");
-        existingUser.setFirstName("John");
-        existingUser.setLastName("Doe");
-        existingUser.setEmail("john.doe@example.com");
-
         RoleRepresentation roleRepresentation = new RoleRepresentation();
         roleRepresentation.setName("USER");
 
@@ -115,7 +117,7 @@ public class UserServiceImplTest {
         when(realmResource.users()).thenReturn(usersResource);
         when(usersResource.create(any(UserRepresentation.class))).thenReturn(response);
         when(response.getStatus()).thenReturn(201);
-        when(usersResource.search("john.doe@example.com")).thenReturn(List.of(existingUser));
+        when(response.getLocation()).thenReturn(URI.create("http://localhost:9080/admin/realms/test/users/user-id-123"));
         when(usersResource.get("user-id-123")).thenReturn(userResource);
         when(realmResource.roles()).thenReturn(rolesResource);
         when(rolesResource.get("USER")).thenReturn(roleResource);
@@ -141,19 +143,82 @@ public class UserServiceImplTest {
                         "john.doe@example.com".equals(user.getEmail()) &&
                         user.isEmailVerified() &&
                         user.isEnabled() &&
-                        user.getRequiredActions().isEmpty()
-        ));
-
-        verify(userResource).resetPassword(argThat(cred ->
-                !cred.isTemporary() &&
-                        CredentialRepresentation.PASSWORD.equals(cred.getType()) &&
-                        "password123".equals(cred.getValue())
+                        user.getRequiredActions().isEmpty() &&
+                        user.getCredentials().size() == 1 &&
+                        !user.getCredentials().get(0).isTemporary() &&
+                        CredentialRepresentation.PASSWORD.equals(user.getCredentials().get(0).getType()) &&
+                        "password123".equals(user.getCredentials().get(0).getValue())
         ));
 
+        // Deux appels seulement : création et ajout du rôle
+        verify(usersResource, never()).search(anyString());
+        verify(userResource, never()).resetPassword(any());
         verify(roleScopeResource).add(List.of(roleRepresentation));
         //verify(logger).info("User created : {}", result);
     }
 
+    @Test
+    void createUser_ShouldWriteEffectiveRealmRolesToUserDirectory() {
+        UserDirectory userDirectory = mock(UserDirectory.class);
+        ReflectionTestUtils.setField(userService, "userDirectory", userDirectory);
+        RoleRepresentation doctor = new RoleRepresentation();
+        doctor.setName("app_doctor");
+        RoleRepresentation defaultRoles = new RoleRepresentation();
+        defaultRoles.setName("default-roles-test");
+        RoleRepresentation offlineAccess = new RoleRepresentation();
+        offlineAccess.setName("offline_access");
+
+        when(keycloakAdmin.realm(realm)).thenReturn(realmResource);
+        when(realmResource.users()).thenReturn(usersResource);
+        when(usersResource.create(any(UserRepresentation.class))).thenReturn(response);
+        when(response.getStatus()).thenReturn(201);
+        when(response.getLocation()).thenReturn(URI.create("http://localhost:9080/admin/realms/test/users/user-id-123"));
+        when(usersResource.get("user-id-123")).thenReturn(userResource);
+        when(realmResource.roles()).thenReturn(rolesResource);
+        when(rolesResource.get("app_doctor")).thenReturn(roleResource);
+        when(roleResource.toRepresentation()).thenReturn(doctor);
+        when(userResource.roles()).thenReturn(roleMappingResource);
+        when(roleMappingResource.realmLevel()).thenReturn(roleScopeResource);
+        when(roleScopeResource.listEffective()).thenReturn(List.of(defaultRoles, doctor, offlineAccess));
+
+        userService.createUser(createUserRequest("doctor@example.com", "app_doctor"));
+
+        verify(userDirectory).save(argThat(user -> "user-id-123".equals(user.getId())
+                && List.of("default-roles-test", "app_doctor", "offline_access").equals(user.getRealmRoles())));
+    }
+
+    @Test
+    void createUser_ShouldReuseCachedRole_ForSubsequentUsers() {
+        // Given
+        RoleRepresentation roleRepresentation = new RoleRepresentation();
+        roleRepresentation.setName("USER");
+        Response secondResponse = mock(Response.class);
+
+        when(keycloakAdmin.realm(realm)).thenReturn(realmResource);
+        when(realmResource.users()).thenReturn(usersResource);
+        when(usersResource.create(any(UserRepresentation.class))).thenReturn(response, secondResponse);
+        when(response.getStatus()).thenReturn(201);
+        when(response.getLocation()).thenReturn(URI.create("http://localhost:9080/admin/realms/test/users/user-1"));
+        when(secondResponse.getStatus()).thenReturn(201);
+        when(secondResponse.getLocation()).thenReturn(URI.create("http://localhost:9080/admin/realms/test/users/user-2"));
+        when(usersResource.get(anyString())).thenReturn(userResource);
+        when(realmResource.roles()).thenReturn(rolesResource);
+        when(rolesResource.get("USER")).thenReturn(roleResource);
+        when(roleResource.toRepresentation()).thenReturn(roleRepresentation);
+        when(userResource.roles()).thenReturn(roleMappingResource);
+        when(roleMappingResource.realmLevel()).thenReturn(roleScopeResource);
+
+        // When
+        KcUserDto first = userService.createUser(createUserRequest("first@example.com"));
+        KcUserDto second = userService.createUser(createUserRequest("second@example.com"));
+
+        // Then
+        assertEquals("user-1", first.getId());
+        assertEquals("user-2", second.getId());
+        verify(roleResource, times(1)).toRepresentation();
+        verify(roleScopeResource, times(2)).add(List.of(roleRepresentation));
+    }
+
     @Test
     void createUser_ShouldReturnNull_WhenUserCreationFails() {
         // Given
@@ -200,6 +265,8 @@ public class UserServiceImplTest {
         when(keycloakAdmin.realm(realm)).thenReturn(realmResource);
         when(realmResource.users()).thenReturn(usersResource);
         when(usersResource.list(firstResult, pageSize)).thenReturn(mockUsers);
+        when(realmResource.roles()).thenReturn(rolesResource);
+        when(rolesResource.list()).thenReturn(Collections.emptyList());
         when(usersResource.count()).thenReturn(totalUsers);
 
         // When
@@ -288,6 +355,8 @@ public class UserServiceImplTest {
         when(keycloakAdmin.realm(realm)).thenReturn(realmResource);
         when(realmResource.users()).thenReturn(usersResource);
         when(usersResource.list(expectedFirstResult, pageSize)).thenReturn(mockUsers);
+        when(realmResource.roles()).thenReturn(rolesResource);
+        when(rolesResource.list()).thenReturn(Collections.emptyList());
         when(usersResource.count()).thenReturn(totalUsers);
 
         // When
@@ -324,6 +393,8 @@ public class UserServiceImplTest {
         when(keycloakAdmin.realm(realm)).thenReturn(realmResource);
         when(realmResource.users()).thenReturn(usersResource);
         when(usersResource.list(0, pageSize)).thenReturn(mockUsers);
+        when(realmResource.roles()).thenReturn(rolesResource);
+        when(rolesResource.list()).thenReturn(Collections.emptyList());
         when(usersResource.count()).thenReturn(totalUsers);
 
         // When
@@ -395,6 +466,106 @@ public class UserServiceImplTest {
         verify(usersResource).list(expectedFirstResult, pageSize);
     }
 
+    @Test
+    void getUsers_ShouldJoinRoleMembers_InsteadOfOneLookupPerUser_WhenMembershipModeIsEnabled() {
+        // Given
+        UserRepresentation user1 = createUserRepresentation("user1", "john.doe", "John", "Doe", "john@example.com", true);
+        UserRepresentation user2 = createUserRepresentation("user2", "jane.smith", "Jane", "Smith", "jane@example.com", true);
+        UserRepresentation outsider = createUserRepresentation("user9", "other", "Other", "User", "other@example.com", true);
+
+        RoleRepresentation defaultRoles = createRole("default-roles-realm", true);
+        RoleRepresentation doctor = createRole("doctor", false);
+        RoleRepresentation offlineAccess = createRole("offline_access", false);
+        RoleResource defaultRolesResource = mock(RoleResource.class);
+        RoleResource doctorResource = mock(RoleResource.class);
+        RoleResource offlineAccessResource = mock(RoleResource.class);
+
+        when(keycloakAdmin.realm(realm)).thenReturn(realmResource);
+        when(realmResource.users()).thenReturn(usersResource);
+        when(usersResource.list(0, 10)).thenReturn(List.of(user1, user2));
+        when(usersResource.count()).thenReturn(2);
+        when(realmResource.roles()).thenReturn(rolesResource);
+        when(rolesResource.list()).thenReturn(List.of(defaultRoles, doctor, offlineAccess));
+        when(rolesResource.get("default-roles-realm")).thenReturn(defaultRolesResource);
+        when(rolesResource.get("doctor")).thenReturn(doctorResource);
+        when(rolesResource.get("offline_access")).thenReturn(offlineAccessResource);
+        RealmRepresentation realmRepresentation = new RealmRepresentation();
+        realmRepresentation.setDefaultRole(defaultRoles);
+        when(realmResource.toRepresentation()).thenReturn(realmRepresentation);
+        when(doctorResource.getUserMembers(0, 500)).thenReturn(List.of(user2, outsider));
+        when(offlineAccessResource.getUserMembers(0, 500)).thenReturn(Collections.emptyList());
+        when(defaultRolesResource.getRealmRoleComposites()).thenReturn(Set.of(offlineAccess));
+
+        // When
+        Page<KcUserDto> result = userService.getUsers(0, 10);
+
+        // Then
+        assertEquals(List.of("default-roles-realm", "offline_access"), result.getContent().get(0).getRealmRoles());
+        assertEquals(List.of("default-roles-realm", "doctor", "offline_access"), result.getContent().get(1).getRealmRoles());
+        verify(usersResource, never()).get(anyString());
+        verify(defaultRolesResource, times(1)).getRealmRoleComposites();
+        // Rôle par défaut attribué à tous : ses membres ne sont jamais listés
+        verify(defaultRolesResource, never()).getUserMembers(anyInt(), anyInt());
+    }
+
+    @Test
+    void getUsers_ShouldLookUpRolesInParallel_AndKeepPageOrder_ByDefault() {
+        // Given
+        BoundedFanOut fanOut = new BoundedFanOut("test-fan-out", 4, Duration.ofSeconds(5));
+        UserServiceImpl parallelService = new UserServiceImpl(keycloakAdmin, fanOut);
+
+        List<UserRepresentation> pageUsers = new ArrayList<>();
+        when(keycloakAdmin.realm(any())).thenReturn(realmResource);
+        when(realmResource.users()).thenReturn(usersResource);
+        for (int i = 0; i < 20; i++) {
+            String id = "user" + i;
+            pageUsers.add(createUserRepresentation(id, id, "First", "Last", id + "@example.com", true));
+            UserResource user = mock(UserResource.class, RETURNS_DEEP_STUBS);
+            when(user.roles().realmLevel().listEffective()).thenReturn(List.of(createRole("role-" + i, false)));
+            when(usersResource.get(id)).thenReturn(user);
+        }
+        when(usersResource.list(0, 20)).thenReturn(pageUsers);
+        when(usersResource.count()).thenReturn(20);
+
+        try {
+            // When
+            Page<KcUserDto> result = parallelService.getUsers(0, 20);
+
+            // Then
+            for (int i = 0; i < 20; i++) {
+                assertEquals("user" + i, result.getContent().get(i).getId());
+                assertEquals(List.of("role-" + i), result.getContent().get(i).getRealmRoles());
+            }
+            verify(realmResource, never()).roles();
+        } finally {
+            fanOut.shutdown();
+        }
+    }
+
+    @Test
+    void getUsers_ShouldBeServedLocally_WhenUserDirectoryIsReady() {
+        // Given
+        UserDirectory userDirectory = mock(UserDirectory.class);
+        ReflectionTestUtils.setField(userService, "userDirectory", userDirectory);
+        Page<KcUserDto> localPage = Page.empty();
+        when(userDirectory.isReady()).thenReturn(true);
+        when(userDirectory.findAll(0, 10)).thenReturn(localPage);
+
+        // When
+        Page<KcUserDto> result = userService.getUsers(0, 10);
+
+        // Then
+        assertSame(localPage, result);
+        verifyNoInteractions(keycloakAdmin);
+    }
+
+    private RoleRepresentation createRole(String name, boolean composite) {
+        RoleRepresentation role = new RoleRepresentation();
+        role.setName(name);
+        role.setComposite(composite);
+        return role;
+    }
+
     // Helper method to create UserRepresentation for testing
     private UserRepresentation createUserRepresentation(String id, String username, String firstName,
                                                         String lastName, String email, Boolean enabled) {
@@ -797,6 +968,7 @@ public class UserServiceImplTest {
             when(jwt.getClaimAsString("given_name")).thenReturn("John");
             when(jwt.getClaimAsString("family_name")).thenReturn("Doe");
             when(jwt.getClaimAsMap("authorization")).thenReturn(authorizationClaim);
+            when(jwt.getClaimAsMap("realm_access")).thenReturn(Map.of("roles", List.of("offline_access", "app_admin")));
 
             // When
             UserInfos result = userService.getMe();
@@ -809,6 +981,8 @@ public class UserServiceImplTest {
             assertEquals("Doe", result.getLastName());
             assertNotNull(result.getPermissions());
             assertEquals(2, result.getPermissions().size());
+            assertEquals("app_admin", result.getRole());
+            verifyNoInteractions(keycloakAdmin);
         }
     }
 
@@ -829,6 +1003,7 @@ public class UserServiceImplTest {
             when(jwt.getClaimAsString("given_name")).thenReturn(null);
             when(jwt.getClaimAsString("family_name")).thenReturn(null);
             when(jwt.getClaimAsMap("authorization")).thenReturn(null);
+            when(jwt.getClaimAsMap("realm_access")).thenReturn(Map.of("roles", List.of("offline_access", "app_admin")));
 
             // When
             UserInfos result = userService.getMe();
@@ -864,6 +1039,7 @@ public class UserServiceImplTest {
             when(jwt.getClaimAsString("given_name")).thenReturn("Test");
             when(jwt.getClaimAsString("family_name")).thenReturn("User");
             when(jwt.getClaimAsMap("authorization")).thenReturn(emptyAuthorizationClaim);
+            when(jwt.getClaimAsMap("realm_access")).thenReturn(Map.of("roles", List.of("offline_access", "app_admin")));
 
             // When
             UserInfos result = userService.getMe();
@@ -893,6 +1069,7 @@ public class UserServiceImplTest {
 
             when(jwt.getClaimAsString("preferred_username")).thenReturn("emptyuser");
             when(jwt.getClaimAsMap("authorization")).thenReturn(authorizationClaim);
+            when(jwt.getClaimAsMap("realm_access")).thenReturn(Map.of("roles", List.of("offline_access", "app_admin")));
 
             // When
             UserInfos result = userService.getMe();
@@ -922,6 +1099,7 @@ public class UserServiceImplTest {
 
             when(jwt.getClaimAsString("preferred_username")).thenReturn("nullpermuser");
             when(jwt.getClaimAsMap("authorization")).thenReturn(authorizationClaim);
+            when(jwt.getClaimAsMap("realm_access")).thenReturn(Map.of("roles", List.of("offline_access", "app_admin")));
 
             // When
             UserInfos result = userService.getMe();
@@ -955,6 +1133,7 @@ public class UserServiceImplTest {
             when(jwt.getClaimAsString("given_name")).thenReturn("Admin");
             when(jwt.getClaimAsString("family_name")).thenReturn("User");
             when(jwt.getClaimAsMap("authorization")).thenReturn(authorizationClaim);
+            when(jwt.getClaimAsMap("realm_access")).thenReturn(Map.of("roles", List.of("offline_access", "app_admin")));
 
             // When
             UserInfos result = userService.getMe();
@@ -976,6 +1155,82 @@ public class UserServiceImplTest {
         }
     }
 
+    @Test
+    void getMe_ShouldReadRolesFromKeycloak_WhenRealmAccessClaimIsMissing() {
+        try (MockedStatic<SecurityContextHolder> mockedSecurityContextHolder =
+                     mockStatic(SecurityContextHolder.class)) {
+
+            // Mock setup
+            mockedSecurityContextHolder.when(SecurityContextHolder::getContext)
+                    .thenReturn(securityContext);
+            when(securityContext.getAuthentication()).thenReturn(authentication);
+            when(authentication.getPrincipal()).thenReturn(jwt);
+            when(jwt.getClaimAsMap("authorization")).thenReturn(null);
+            when(jwt.getClaimAsString("sub")).thenReturn("user-1");
+            when(jwt.getClaimAsMap("realm_access")).thenReturn(null);
+            givenEffectiveRealmRoles("user-1", "app_doctor");
+
+            // When
+            UserInfos result = userService.getMe();
+
+            // Then
+            assertEquals("app_doctor", result.getRole());
+            verify(roleScopeResource).listEffective();
+        }
+    }
+
+    @Test
+    void getMe_ShouldCacheKeycloakRoles_WhenCacheTtlIsSet() {
+        ReflectionTestUtils.setField(userService, "meRolesCacheTtl", Duration.ofSeconds(30));
+
+        try (MockedStatic<SecurityContextHolder> mockedSecurityContextHolder =
+                     mockStatic(SecurityContextHolder.class)) {
+
+            // Mock setup
+            mockedSecurityContextHolder.when(SecurityContextHolder::getContext)
+                    .thenReturn(securityContext);
+            when(securityContext.getAuthentication()).thenReturn(authentication);
+            when(authentication.getPrincipal()).thenReturn(jwt);
+            when(jwt.getClaimAsMap("authorization")).thenReturn(null);
+            when(jwt.getClaimAsString("sub")).thenReturn("user-1");
+            when(jwt.getClaimAsMap("realm_access")).thenReturn(null);
+            givenEffectiveRealmRoles("user-1", "app_doctor");
+
+            // When
+            userService.getMe();
+            UserInfos result = userService.getMe();
+
+            // Then
+            assertEquals("app_doctor", result.getRole());
+            verify(roleScopeResource, times(1)).listEffective();
+        }
+    }
+
+    private void givenEffectiveRealmRoles(String userId, String roleName) {
+        RoleRepresentation role = new RoleRepresentation();
+        role.setName(roleName);
+        when(keycloakAdmin.realm(realm)).thenReturn(realmResource);
+        when(realmResource.users()).thenReturn(usersResource);
+        when(usersResource.get(userId)).thenReturn(userResource);
+        when(userResource.roles()).thenReturn(roleMappingResource);
+        when(roleMappingResource.realmLevel()).thenReturn(roleScopeResource);
+        when(roleScopeResource.listEffective()).thenReturn(List.of(role));
+    }
+
+    private KcUserDtoRequest createUserRequest(String email) {
+        return createUserRequest(email, "USER");
+    }
+
+    private KcUserDtoRequest createUserRequest(String email, String role) {
+        KcUserDtoRequest request = new KcUserDtoRequest();
+        request.setFirstName("Staff");
+        request.setLastName("Member");
+        request.setEmail(email);
+        request.setPassword("password123");
+        request.setRole(role);
+        return request;
+    }
+
     // Helper method pour créer des permissions de test
     private Permission createPermission(String action, String resource) {
         Permission permission = new Permission();
@@ -0,0 +1,90 @@
+package com.si.admin_management.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BoundedFanOutTest {
+    private BoundedFanOut fanOut;
+
+    @AfterEach
+    void tearDown() {
+        fanOut.shutdown();
+    }
+
+    @Test
+    void map_shouldNotCountQueueTime_againstTheCallTimeout() {
+        // Un seul thread : le dernier appel attend 4 x 100 ms dans la file, chaque appel dure moins que le délai
+        fanOut = new BoundedFanOut("test-fan-out", 1, Duration.ofMillis(250));
+
+        List<Integer> results = fanOut.map(List.of(1, 2, 3, 4, 5), item -> {
+            sleep(100);
+            return item * 10;
+        });
+
+        assertThat(results).containsExactly(10, 20, 30, 40, 50);
+    }
+
+    @Test
+    void map_shouldFail_whenACallRunsPastTheTimeout() {
+        fanOut = new BoundedFanOut("test-fan-out", 2, Duration.ofMillis(100));
+
+        assertThatThrownBy(() -> fanOut.map(List.of(10, 1_000), item -> {
+            sleep(item);
+            return item;
+        }))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("did not complete within");
+    }
+
+    @Test
+    void map_shouldInterruptACallThatRunsPastTheTimeout_andGiveItsThreadBack() throws InterruptedException {
+        fanOut = new BoundedFanOut("test-fan-out", 1, Duration.ofMillis(100));
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        assertThatThrownBy(() -> fanOut.map(List.of(1, 2), item -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                Thread.currentThread().interrupt();
+            }
+            return item;
+        }))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("did not complete within");
+
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+        // Le seul thread du pool est de nouveau disponible
+        assertThat(fanOut.map(List.of(1, 2), item -> item * 10)).containsExactly(10, 20);
+    }
+
+    @Test
+    void map_shouldRethrowTheCallFailure() {
+        fanOut = new BoundedFanOut("test-fan-out", 2, Duration.ofSeconds(5));
+
+        assertThatThrownBy(() -> fanOut.map(List.of(1, 2), item -> {
+            if (item == 2) {
+                throw new IllegalArgumentException("item " + item);
+            }
+            return item;
+        }))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("item 2");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.si.admin_management.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExpiringCacheTest {
+    private final Instant now = Instant.parse("2025-01-01T10:00:00Z");
+
+    @Test
+    void get_shouldReturnValue_untilItExpires() {
+        MutableClock clock = new MutableClock(now);
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, clock);
+        cache.put("key", "value", now.plusSeconds(60));
+
+        assertThat(cache.get("key")).isEqualTo("value");
+
+        clock.instant = now.plusSeconds(60);
+        assertThat(cache.get("key")).isNull();
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void put_shouldIgnoreAlreadyExpiredValues() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, Clock.fixed(now, ZoneOffset.UTC));
+
+        cache.put("key", "value", now);
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void put_shouldEvictEntryClosestToExpiry_whenFull() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(2, Clock.fixed(now, ZoneOffset.UTC));
+        cache.put("a", "1", now.plus(1, ChronoUnit.HOURS));
+        cache.put("b", "2", now.plus(1, ChronoUnit.MINUTES));
+
+        cache.put("c", "3", now.plus(2, ChronoUnit.HOURS));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo("1");
+        assertThat(cache.get("c")).isEqualTo("3");
+        assertThat(cache.getEvictions()).isEqualTo(1);
+    }
+
+    static class MutableClock extends Clock {
+        Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
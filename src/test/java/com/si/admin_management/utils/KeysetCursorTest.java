@@ -0,0 +1,54 @@
+package com.si.admin_management.utils;
+
+import com.si.admin_management.dtos.CursorPage;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeysetCursorTest {
+
+    @Test
+    void decode_shouldReturnEncodedKeys() {
+        String cursor = KeysetCursor.encode("2025-01-01T08:00", "7f1c2b");
+
+        assertThat(cursor).doesNotContain("=", "+", "/");
+        assertThat(KeysetCursor.decode(cursor, 2)).hasValueSatisfying(keys ->
+                assertThat(keys).containsExactly("2025-01-01T08:00", "7f1c2b"));
+    }
+
+    @Test
+    void decode_shouldBeEmpty_whenCursorIsNotOneOfOurs() {
+        assertThat(KeysetCursor.decode("not base64 !", 2)).isEmpty();
+        assertThat(KeysetCursor.decode(KeysetCursor.encode("PAT-000001"), 2)).isEmpty();
+    }
+
+    @Test
+    void page_shouldKeepPageSizeRows_andPointCursorAtLastKeptRow() {
+        CursorPage<String> page = KeysetCursor.page(List.of("a", "b", "c"), 2, row -> new String[]{row, "id-" + row});
+
+        assertThat(page.getContent()).containsExactly("a", "b");
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(KeysetCursor.decode(page.getNextCursor(), 2)).hasValueSatisfying(keys ->
+                assertThat(keys).containsExactly("b", "id-b"));
+    }
+
+    @Test
+    void page_shouldHaveNoCursor_onLastPage() {
+        CursorPage<String> page = KeysetCursor.page(List.of("a", "b"), 2, row -> new String[]{row, row});
+
+        assertThat(page.getContent()).containsExactly("a", "b");
+        assertThat(page.isHasNext()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void isValidPageSize_shouldAcceptOnlyOneToMax() {
+        assertThat(KeysetCursor.isValidPageSize(1)).isTrue();
+        assertThat(KeysetCursor.isValidPageSize(KeysetCursor.MAX_PAGE_SIZE)).isTrue();
+        assertThat(KeysetCursor.isValidPageSize(0)).isFalse();
+        assertThat(KeysetCursor.isValidPageSize(KeysetCursor.MAX_PAGE_SIZE + 1)).isFalse();
+        assertThat(KeysetCursor.isValidPageSize(Integer.MAX_VALUE)).isFalse();
+    }
+}
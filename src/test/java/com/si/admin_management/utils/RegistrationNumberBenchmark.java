@@ -0,0 +1,72 @@
+package com.si.admin_management.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare l'ancienne génération par concaténations successives au formatage dans un tampon unique.
+ * Lancer avec -prof gc pour comparer aussi les allocations par appel.
+ * Lancement : mvn test-compile puis exécuter la méthode main avec le classpath de test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistrationNumberBenchmark {
+
+    @Param({"8", "41999", "999998"})
+    private long listCount;
+
+    private final RegistrationNumber registrationNumber = new RegistrationNumber();
+
+    @Benchmark
+    public String concatenation() {
+        return legacyGenerate("PAT", listCount);
+    }
+
+    @Benchmark
+    public String buffer() {
+        return registrationNumber.generate("PAT", listCount);
+    }
+
+    // Implémentation d'origine de RegistrationNumber.generate, gardée comme référence
+    private static String legacyGenerate(String entityCode, long listCount) {
+        listCount += 1;
+        var registrationNu = entityCode + "-";
+        if (listCount < 10) {
+            registrationNu += "00000" + listCount;
+        } else if (listCount < 100) {
+            registrationNu += "0000" + listCount;
+        } else if (listCount < 1000) {
+            registrationNu += "000" + listCount;
+        } else if (listCount < 10000) {
+            registrationNu += "00" + listCount;
+        } else if (listCount < 100000) {
+            registrationNu += "0" + listCount;
+        } else {
+            registrationNu += listCount;
+        }
+        return registrationNu;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RegistrationNumberBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class RegistrationNumberTest {
     private RegistrationNumber registrationNumber;
@@ -95,4 +96,35 @@ public class RegistrationNumberTest {
 
         assertThat(result).isEqualTo(expected);
     }
+
+    @Test
+    void format_shouldPadToConfiguredWidth() {
+        RegistrationNumber wide = new RegistrationNumber(9);
+
+        assertThat(wide.format("RDV", 1_234_567)).isEqualTo("RDV-001234567");
+        assertThat(wide.format("RDV", 0)).isEqualTo("RDV-000000000");
+    }
+
+    @Test
+    void format_shouldWiden_whenValueDoesNotFitInWidth() {
+        assertThat(registrationNumber.format("PAT", 999_999)).isEqualTo("PAT-999999");
+        assertThat(registrationNumber.format("PAT", 1_000_000)).isEqualTo("PAT-1000000");
+        assertThat(registrationNumber.generate("RDV", 1_234_567_889)).isEqualTo("RDV-1234567890");
+        assertThat(new RegistrationNumber(1).format("DOC", Long.MAX_VALUE)).isEqualTo("DOC-" + Long.MAX_VALUE);
+    }
+
+    @Test
+    void format_shouldReject_negativeValue() {
+        assertThatThrownBy(() -> registrationNumber.format("PAT", -1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void format_shouldHandleLargestValue_withMaximumWidth() {
+        assertThat(new RegistrationNumber(19).format("PAT", Long.MAX_VALUE)).isEqualTo("PAT-" + Long.MAX_VALUE);
+        assertThatThrownBy(() -> registrationNumber.generate("PAT", Long.MAX_VALUE))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> new RegistrationNumber(20))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
 }
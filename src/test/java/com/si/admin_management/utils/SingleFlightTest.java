@@ -0,0 +1,85 @@
+package com.si.admin_management.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SingleFlightTest {
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_shouldShareTheResult_withConcurrentCallers() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> first = executor.submit(() -> singleFlight.execute("roles", () -> {
+            started.countDown();
+            await(release);
+            return "app_doctor";
+        }));
+        started.await(1, TimeUnit.SECONDS);
+        Future<String> second = executor.submit(() -> singleFlight.execute("roles", () -> "not called"));
+        waitUntilShared();
+        release.countDown();
+
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo("app_doctor");
+        assertThat(second.get(1, TimeUnit.SECONDS)).isEqualTo("app_doctor");
+        assertThat(singleFlight.getExecutions()).isEqualTo(1);
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    @Test
+    void execute_shouldReleaseWaiters_whenTheCallFailsWithAnError() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> first = executor.submit(() -> singleFlight.execute("roles", () -> {
+            started.countDown();
+            await(release);
+            throw new StackOverflowError("boom");
+        }));
+        started.await(1, TimeUnit.SECONDS);
+        Future<String> second = executor.submit(() -> singleFlight.execute("roles", () -> "not called"));
+        waitUntilShared();
+        release.countDown();
+
+        assertThatThrownBy(() -> first.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(StackOverflowError.class);
+        // L'appelant en attente reçoit la même erreur au lieu de rester bloqué
+        assertThatThrownBy(() -> second.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(StackOverflowError.class);
+        assertThat(singleFlight.inFlight()).isZero();
+        assertThat(singleFlight.execute("roles", () -> "app_nurse")).isEqualTo("app_nurse");
+    }
+
+    private void waitUntilShared() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (singleFlight.getSharedCalls() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(singleFlight.getSharedCalls()).isEqualTo(1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.si.admin_management.web.rest.controllers;
 
+import com.si.admin_management.dtos.CursorPage;
 import com.si.admin_management.dtos.appointments.AppointmentDtoRequest;
 import com.si.admin_management.dtos.appointments.AppointmentDtoResponse;
 import com.si.admin_management.entities.AppointmentStatus;
@@ -12,6 +13,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
@@ -62,7 +65,7 @@ public class AppointmentControllerTest {
     void testGetPaginatedAppointments_ReturnsOkResponse() {
         Page<AppointmentDtoResponse> page = new PageImpl<>(appointmentDtoResponseList);
         when(appointmentService.getAppointments(0,1)).thenReturn(page);
-        ResponseEntity<Page<AppointmentDtoResponse>> response = appointmentController.getAppointments(0,1);
+        ResponseEntity<Page<AppointmentDtoResponse>> response = appointmentController.getAppointments(0,1,false);
         assertEquals(HttpStatus.OK , response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(1,response.getBody().getTotalElements());
@@ -70,11 +73,40 @@ public class AppointmentControllerTest {
         verify(appointmentService, times(1)).getAppointments(0,1);
     }
 
+    @Test
+    void testGetPaginatedAppointments_WithApproximateTotal() {
+        Page<AppointmentDtoResponse> page = new PageImpl<>(appointmentDtoResponseList);
+        when(appointmentService.getAppointmentsWithApproximateTotal(0,1)).thenReturn(page);
+        ResponseEntity<Page<AppointmentDtoResponse>> response = appointmentController.getAppointments(0,1,true);
+        assertEquals(HttpStatus.OK , response.getStatusCode());
+        assertSame(page, response.getBody());
+        verify(appointmentService, never()).getAppointments(anyInt(), anyInt());
+    }
+
+    @Test
+    void testGetAppointmentsSlice_ReturnsOkResponse() {
+        Slice<AppointmentDtoResponse> slice = new SliceImpl<>(appointmentDtoResponseList);
+        when(appointmentService.getAppointmentsSlice(0,1)).thenReturn(slice);
+        ResponseEntity<Slice<AppointmentDtoResponse>> response = appointmentController.getAppointmentsSlice(0,1);
+        assertEquals(HttpStatus.OK , response.getStatusCode());
+        assertSame(slice, response.getBody());
+    }
+
+    @Test
+    void testGetAppointmentsAfter_ReturnsCursorPage() {
+        CursorPage<AppointmentDtoResponse> page = new CursorPage<>(appointmentDtoResponseList, "next", true);
+        when(appointmentService.getAppointmentsAfter("cursor", 1)).thenReturn(page);
+        ResponseEntity<CursorPage<AppointmentDtoResponse>> response = appointmentController.getAppointmentsAfter("cursor", 1);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(page, response.getBody());
+        verify(appointmentService, times(1)).getAppointmentsAfter("cursor", 1);
+    }
+
     @Test
     void testGetPaginatedAppointments_ReturnsEmptyList() {
         Page<AppointmentDtoResponse> page = new PageImpl<>(List.of());
         when(appointmentService.getAppointments(0,1)).thenReturn(page);
-        ResponseEntity<Page<AppointmentDtoResponse>> response = appointmentController.getAppointments(0,1);
+        ResponseEntity<Page<AppointmentDtoResponse>> response = appointmentController.getAppointments(0,1,false);
         assertEquals(HttpStatus.OK , response.getStatusCode());
         assertNotNull(response.getBody());
         assertTrue(response.getBody().isEmpty());
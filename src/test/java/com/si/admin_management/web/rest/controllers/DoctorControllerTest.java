@@ -1,5 +1,6 @@
 package com.si.admin_management.web.rest.controllers;
 
+import com.si.admin_management.dtos.CursorPage;
 import com.si.admin_management.dtos.doctors.DoctorDtoRequest;
 import com.si.admin_management.dtos.doctors.DoctorDtoResponse;
 import com.si.admin_management.services.doctors.DoctorServiceImpl;
@@ -11,6 +12,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
@@ -51,7 +54,7 @@ public class DoctorControllerTest {
     void testGetPaginatedDoctors_ReturnsOkResponse() {
         Page<DoctorDtoResponse> page = new PageImpl<>(doctorDtoResponseList);
         when(doctorService.getDoctors(0,1)).thenReturn(page);
-        ResponseEntity<Page<DoctorDtoResponse>> response = doctorController.getDoctors(0,1);
+        ResponseEntity<Page<DoctorDtoResponse>> response = doctorController.getDoctors(0,1,false);
         assertEquals(HttpStatus.OK , response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(1,response.getBody().getTotalElements());
@@ -59,11 +62,40 @@ public class DoctorControllerTest {
         verify(doctorService, times(1)).getDoctors(0,1);
     }
 
+    @Test
+    void testGetPaginatedDoctors_WithApproximateTotal() {
+        Page<DoctorDtoResponse> page = new PageImpl<>(doctorDtoResponseList);
+        when(doctorService.getDoctorsWithApproximateTotal(0,1)).thenReturn(page);
+        ResponseEntity<Page<DoctorDtoResponse>> response = doctorController.getDoctors(0,1,true);
+        assertEquals(HttpStatus.OK , response.getStatusCode());
+        assertSame(page, response.getBody());
+        verify(doctorService, never()).getDoctors(anyInt(), anyInt());
+    }
+
+    @Test
+    void testGetDoctorsSlice_ReturnsOkResponse() {
+        Slice<DoctorDtoResponse> slice = new SliceImpl<>(doctorDtoResponseList);
+        when(doctorService.getDoctorsSlice(0,1)).thenReturn(slice);
+        ResponseEntity<Slice<DoctorDtoResponse>> response = doctorController.getDoctorsSlice(0,1);
+        assertEquals(HttpStatus.OK , response.getStatusCode());
+        assertSame(slice, response.getBody());
+    }
+
+    @Test
+    void testGetDoctorsAfter_ReturnsCursorPage() {
+        CursorPage<DoctorDtoResponse> page = new CursorPage<>(doctorDtoResponseList, "next", true);
+        when(doctorService.getDoctorsAfter("cursor", 1)).thenReturn(page);
+        ResponseEntity<CursorPage<DoctorDtoResponse>> response = doctorController.getDoctorsAfter("cursor", 1);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(page, response.getBody());
+        verify(doctorService, times(1)).getDoctorsAfter("cursor", 1);
+    }
+
     @Test
     void testGetPaginatedDoctors_ReturnsEmptyList() {
         Page<DoctorDtoResponse> page = new PageImpl<>(List.of());
         when(doctorService.getDoctors(0,1)).thenReturn(page);
-        ResponseEntity<Page<DoctorDtoResponse>> response = doctorController.getDoctors(0,1);
+        ResponseEntity<Page<DoctorDtoResponse>> response = doctorController.getDoctors(0,1,false);
         assertEquals(HttpStatus.OK , response.getStatusCode());
         assertNotNull(response.getBody());
         assertTrue(response.getBody().isEmpty());
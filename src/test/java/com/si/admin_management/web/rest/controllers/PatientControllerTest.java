@@ -1,5 +1,6 @@
 package com.si.admin_management.web.rest.controllers;
 
+import com.si.admin_management.dtos.CursorPage;
 import com.si.admin_management.dtos.patients.PatientDtoRequest;
 import com.si.admin_management.dtos.patients.PatientDtoResponse;
 import com.si.admin_management.entities.Gender;
@@ -12,6 +13,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
@@ -56,7 +59,7 @@ public class PatientControllerTest {
     void testGetPaginatedPatients_ReturnsOkResponse() {
         Page<PatientDtoResponse> page = new PageImpl<>(patientDtoResponseList);
         when(patientService.getPatients(0,1)).thenReturn(page);
-        ResponseEntity<Page<PatientDtoResponse>> response = patientController.getPatients(0,1);
+        ResponseEntity<Page<PatientDtoResponse>> response = patientController.getPatients(0,1,false);
         assertEquals(HttpStatus.OK , response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(1,response.getBody().getTotalElements());
@@ -64,11 +67,40 @@ public class PatientControllerTest {
         verify(patientService, times(1)).getPatients(0,1);
     }
 
+    @Test
+    void testGetPaginatedPatients_WithApproximateTotal() {
+        Page<PatientDtoResponse> page = new PageImpl<>(patientDtoResponseList);
+        when(patientService.getPatientsWithApproximateTotal(0,1)).thenReturn(page);
+        ResponseEntity<Page<PatientDtoResponse>> response = patientController.getPatients(0,1,true);
+        assertEquals(HttpStatus.OK , response.getStatusCode());
+        assertSame(page, response.getBody());
+        verify(patientService, never()).getPatients(anyInt(), anyInt());
+    }
+
+    @Test
+    void testGetPatientsSlice_ReturnsOkResponse() {
+        Slice<PatientDtoResponse> slice = new SliceImpl<>(patientDtoResponseList);
+        when(patientService.getPatientsSlice(0,1)).thenReturn(slice);
+        ResponseEntity<Slice<PatientDtoResponse>> response = patientController.getPatientsSlice(0,1);
+        assertEquals(HttpStatus.OK , response.getStatusCode());
+        assertSame(slice, response.getBody());
+    }
+
+    @Test
+    void testGetPatientsAfter_ReturnsCursorPage() {
+        CursorPage<PatientDtoResponse> page = new CursorPage<>(patientDtoResponseList, "next", true);
+        when(patientService.getPatientsAfter("cursor", 1)).thenReturn(page);
+        ResponseEntity<CursorPage<PatientDtoResponse>> response = patientController.getPatientsAfter("cursor", 1);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(page, response.getBody());
+        verify(patientService, times(1)).getPatientsAfter("cursor", 1);
+    }
+
     @Test
     void testGetPaginatedPatients_ReturnsEmptyList() {
         Page<PatientDtoResponse> page = new PageImpl<>(List.of());
         when(patientService.getPatients(0,1)).thenReturn(page);
-        ResponseEntity<Page<PatientDtoResponse>> response = patientController.getPatients(0,1);
+        ResponseEntity<Page<PatientDtoResponse>> response = patientController.getPatients(0,1,false);
         assertEquals(HttpStatus.OK , response.getStatusCode());
         assertNotNull(response.getBody());
         assertTrue(response.getBody().isEmpty());
@@ -1,6 +1,7 @@
 package com.si.admin_management.web.rest.controllers;
 
 import com.si.admin_management.dtos.keycloak.AppPermission;
+import com.si.admin_management.services.roles.PermissionCatalog;
 import com.si.admin_management.services.roles.RoleServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +13,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.Instant;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,6 +30,7 @@ public class PermissionControllerTest {
     private PermissionController permissionController;
 
     private List<AppPermission> permissionsList;
+    private PermissionCatalog.Snapshot catalog;
     private List<String> permissionsByRoleList;
 
 
@@ -37,6 +40,8 @@ public class PermissionControllerTest {
                 new AppPermission("create-account" , "create-account", List.of())
         );
 
+        catalog = new PermissionCatalog.Snapshot(permissionsList, "v1", Instant.now());
+
         permissionsByRoleList = List.of(
                 "create-account"
         );
@@ -45,12 +50,30 @@ public class PermissionControllerTest {
 
     @Test
     void testGetPermissions_ReturnsOkResponse() {
-        when(roleService.getAllPermissions()).thenReturn(permissionsList);
-        ResponseEntity<List<AppPermission>> response = permissionController.getPermissions();
+        when(roleService.getPermissionCatalog()).thenReturn(catalog);
+        ResponseEntity<List<AppPermission>> response = permissionController.getPermissions(null);
         assertEquals(HttpStatus.OK , response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(1,response.getBody().size());
-        verify(roleService, times(1)).getAllPermissions();
+        assertEquals("\"v1\"", response.getHeaders().getETag());
+        verify(roleService, times(1)).getPermissionCatalog();
+    }
+
+    @Test
+    void testGetPermissions_ReturnsNotModified_WhenETagMatches() {
+        when(roleService.getPermissionCatalog()).thenReturn(catalog);
+        ResponseEntity<List<AppPermission>> response = permissionController.getPermissions("\"v0\", W/\"v1\"");
+        assertEquals(HttpStatus.NOT_MODIFIED , response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals("\"v1\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void testGetPermissions_ReturnsOkResponse_WhenETagIsStale() {
+        when(roleService.getPermissionCatalog()).thenReturn(catalog);
+        ResponseEntity<List<AppPermission>> response = permissionController.getPermissions("\"v0\"");
+        assertEquals(HttpStatus.OK , response.getStatusCode());
+        assertEquals(1,response.getBody().size());
     }
 
     @Test
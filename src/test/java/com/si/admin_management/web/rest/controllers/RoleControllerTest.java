@@ -70,6 +70,15 @@ public class RoleControllerTest {
         verify(roleService, times(1)).getRoles(0,1);
     }
 
+    @Test
+    void testSearchRoles_ReturnsOkResponse() {
+        Page<KcRoleDto> page = new PageImpl<>(rolesList);
+        when(roleService.searchRoles("ADM", 0, 10)).thenReturn(page);
+        ResponseEntity<Page<KcRoleDto>> response = roleController.searchRoles("ADM", 0, 10);
+        assertEquals(HttpStatus.OK , response.getStatusCode());
+        assertEquals(1, response.getBody().getTotalElements());
+        verify(roleService, times(1)).searchRoles("ADM", 0, 10);
+    }
 
     @Test
     void testCreateRole_ReturnsOkResponse() {
@@ -83,9 +92,12 @@ public class RoleControllerTest {
 
     @Test
     void testAssignPermissions_ReturnsOkResponse() {
-        doNothing().when(roleService).assignPermissionsToRole("1", assignPermissionRequestDto);
-        ResponseEntity<?> response = roleController.assignPermissionsToRole("1", assignPermissionRequestDto);
+        List<PermissionAssignmentResult> report = List.of(
+                new PermissionAssignmentResult("create-account", PermissionAssignmentResult.Status.ASSIGNED, null));
+        when(roleService.assignPermissionsToRole("1", assignPermissionRequestDto)).thenReturn(report);
+        ResponseEntity<List<PermissionAssignmentResult>> response = roleController.assignPermissionsToRole("1", assignPermissionRequestDto);
         assertEquals(HttpStatus.OK , response.getStatusCode());
+        assertEquals(report, response.getBody());
         verify(roleService, times(1)).assignPermissionsToRole("1",assignPermissionRequestDto);
     }
 
@@ -3,6 +3,7 @@ package com.si.admin_management.web.rest.controllers;
 import com.si.admin_management.dtos.keycloak.KcUserDto;
 import com.si.admin_management.dtos.keycloak.KcUserDtoRequest;
 import com.si.admin_management.dtos.keycloak.UserInfos;
+import com.si.admin_management.services.users.IUserImportService;
 import com.si.admin_management.services.users.UserServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,13 +14,21 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.times;
 
@@ -28,6 +37,8 @@ import static org.mockito.Mockito.times;
 public class UserControllerTest {
     @Mock
     private UserServiceImpl userService;
+    @Mock
+    private IUserImportService userImportService;
     @InjectMocks
     private UserController userController;
 
@@ -53,6 +64,29 @@ public class UserControllerTest {
         userInfos.setPermissions(List.of());
     }
 
+    @Test
+    void testImportUsers_StreamsResultsAsNdjson() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ByteArrayInputStream body = new ByteArrayInputStream("[]".getBytes(StandardCharsets.UTF_8));
+
+        userController.importUsers("application/json", body, response);
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE, response.getContentType());
+        verify(userImportService, times(1)).importUsers(eq(body), eq(MediaType.APPLICATION_JSON), any(OutputStream.class));
+    }
+
+    @Test
+    void testSearchUsers_ReturnsOkResponse() {
+        Page<KcUserDto> page = new PageImpl<>(usersList);
+        when(userService.searchUsers("lucas", 0, 10)).thenReturn(page);
+        ResponseEntity<Page<KcUserDto>> response = userController.searchUsers("lucas", 0, 10);
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+        verify(userService, times(1)).searchUsers("lucas", 0, 10);
+    }
+
     @Test
     void testGetPaginatedUsers_ReturnsOkResponse() {
         Page<KcUserDto> page = new PageImpl<>(usersList);